@@ -0,0 +1,94 @@
+package bench;
+
+import client.AsyncGameServiceProxy;
+import client.GameServiceProxy;
+import client.ServiceReference;
+import client.TcpTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.NioServer;
+import server.RequestHandler;
+import server.Server;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A board click as {@code GameUI.handleMove} sends it: one batch holding
+ * the move and a fresh snapshot, through the blocking and the async proxy,
+ * in process or over a TCP connection on localhost. Both sides' moves go
+ * through the proxy (no AI), following the draw sequence and a reset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClickPathBenchmark {
+    @Param({"local", "tcp"})
+    public String transport;
+
+    private NioServer network;
+    private TcpTransport tcp;
+    private GameServiceProxy game;
+    private AsyncGameServiceProxy asyncGame;
+    private int step;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() throws IOException {
+        console = Fixtures.silence();
+        Server server = new Server();
+        RequestHandler target = server.getDispatcher();
+        if (transport.equals("tcp")) {
+            network = server.startNetwork(0);
+            tcp = TcpTransport.connect("localhost", network.getPort());
+            target = tcp;
+        }
+        ServiceReference ref = new ServiceReference("TicTacToeGame", target);
+        game = new GameServiceProxy(ref);
+        asyncGame = new AsyncGameServiceProxy(ref);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (tcp != null) {
+            tcp.close();
+        }
+        if (network != null) {
+            network.close();
+        }
+        Fixtures.restore(console);
+    }
+
+    @Benchmark
+    public Object[] click() {
+        return nextClick(game.batch()).execute();
+    }
+
+    @Benchmark
+    public Object[] clickAsync() {
+        return asyncGame.submit(nextClick(asyncGame.batch())).join();
+    }
+
+    private GameServiceProxy.Batch nextClick(GameServiceProxy.Batch batch) {
+        int current = step;
+        step = Fixtures.advance(current);
+        if (current == Fixtures.DRAW.length) {
+            return batch.resetGame().getSnapshot();
+        }
+        return batch.play(Fixtures.sideOf(current), Fixtures.DRAW[current]).getSnapshot();
+    }
+}
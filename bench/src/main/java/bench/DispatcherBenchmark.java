@@ -0,0 +1,161 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.Server;
+import server.ServerDispatcher;
+import server.TicTacToeService;
+
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ServerDispatcher#handleRequest} per method, against the original
+ * name-based dispatcher ({@link NameSwitchDispatcher}): a map lookup of the
+ * service, an instanceof check, a switch on the method name and casts of
+ * the boxed arguments. Move methods play the draw sequence and reset, so
+ * one call in ten is a reset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatcherBenchmark {
+    private static final String GAME = "TicTacToeGame";
+    private static final int RESET_GAME = ServerDispatcher.opcode("resetGame");
+
+    @Param({"getBoard", "getStatus", "getCurrentPlayer", "getSnapshot", "makeMove", "play"})
+    public String method;
+
+    private ServerDispatcher dispatcher;
+    private NameSwitchDispatcher nameSwitch;
+    private int opcode;
+    private boolean move;
+    private int step;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = Fixtures.silence();
+        Server server = new Server();
+        dispatcher = server.getDispatcher();
+        nameSwitch = new NameSwitchDispatcher();
+        nameSwitch.registerService(GAME, server.getGameService());
+        opcode = ServerDispatcher.opcode(method);
+        move = method.equals("makeMove") || method.equals("play");
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.restore(console);
+    }
+
+    @Benchmark
+    public Object handleRequest() {
+        if (!move) {
+            return dispatcher.handleRequest(GAME, opcode);
+        }
+        int current = nextStep();
+        if (current == Fixtures.DRAW.length) {
+            return dispatcher.handleRequest(GAME, RESET_GAME);
+        }
+        return dispatcher.handleRequest(GAME, opcode, Fixtures.sideOf(current), Fixtures.DRAW[current]);
+    }
+
+    @Benchmark
+    public Object nameSwitch() {
+        if (!move) {
+            return nameSwitch.handleRequest(GAME, method);
+        }
+        int current = nextStep();
+        if (current == Fixtures.DRAW.length) {
+            return nameSwitch.handleRequest(GAME, "resetGame");
+        }
+        return nameSwitch.handleRequest(GAME, method, Fixtures.sideOf(current), Fixtures.DRAW[current]);
+    }
+
+    private int nextStep() {
+        int current = step;
+        step = Fixtures.advance(current);
+        return current;
+    }
+
+    /**
+     * The dispatcher as it was before the method-handle tables, extended
+     * with the cases for getSnapshot and play so every benchmarked method
+     * has a baseline.
+     */
+    static final class NameSwitchDispatcher {
+        private final Map<String, Object> services = new HashMap<>();
+
+        void registerService(String serviceName, Object serviceObject) {
+            services.put(serviceName, serviceObject);
+        }
+
+        Object handleRequest(String serviceName, String methodName, Object... params) {
+            Object service = services.get(serviceName);
+
+            if (service == null) {
+                return "Error: Service '" + serviceName + "' not found.";
+            }
+
+            // For TicTacToeService
+            if (service instanceof TicTacToeService) {
+                TicTacToeService gameService = (TicTacToeService) service;
+
+                switch (methodName) {
+                    case "makeMove":
+                        if (params.length >= 2) {
+                            char player = (Character) params[0];
+                            int position = (Integer) params[1];
+                            return gameService.makeMove(player, position);
+                        }
+                        return "Error: Invalid parameters for makeMove.";
+
+                    case "play":
+                        if (params.length >= 2) {
+                            char player = (Character) params[0];
+                            int position = (Integer) params[1];
+                            return gameService.play(player, position);
+                        }
+                        return "Error: Invalid parameters for play.";
+
+                    case "getBoard":
+                        return gameService.getBoard();
+
+                    case "getStatus":
+                        return gameService.getStatus();
+
+                    case "getCurrentPlayer":
+                        return gameService.getCurrentPlayer();
+
+                    case "getSnapshot":
+                        return gameService.getSnapshot();
+
+                    case "resetGame":
+                        gameService.resetGame();
+                        return "Game reset successfully";
+
+                    default:
+                        return "Error: Unknown method '" + methodName + "'.";
+                }
+            }
+
+            return "Error: Unknown service type.";
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.GameService;
+import server.LockFreeTicTacToeService;
+import server.TicTacToeService;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a mixed workload on the locked and the lock-free engine:
+ * each thread alternates a move from the draw sequence (or the reset that
+ * ends it) with a snapshot read. {@code shared} puts every thread on one
+ * game; {@code perThread} gives each thread its own. Run it across thread
+ * counts with {@link ThreadSweep}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineScalingBenchmark {
+    @Param({"locked", "lockFree"})
+    public String engine;
+
+    @Param({"shared", "perThread"})
+    public String layout;
+
+    private GameService shared;
+    private PrintStream console;
+
+    @State(Scope.Thread)
+    public static class Player {
+        GameService game;
+        int step;
+        boolean read;
+
+        @Setup
+        public void setUp(EngineScalingBenchmark benchmark) {
+            game = benchmark.layout.equals("shared") ? benchmark.shared : benchmark.newGame();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        console = Fixtures.silence();
+        shared = newGame();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.restore(console);
+    }
+
+    @Benchmark
+    public Object mixed(Player player) {
+        GameService game = player.game;
+        player.read = !player.read;
+        if (player.read) {
+            return game.getSnapshot();
+        }
+        int step = player.step;
+        player.step = Fixtures.advance(step);
+        if (step == Fixtures.DRAW.length) {
+            return game.resetGame();
+        }
+        return game.play(Fixtures.sideOf(step), Fixtures.DRAW[step]);
+    }
+
+    GameService newGame() {
+        return engine.equals("lockFree") ? new LockFreeTicTacToeService() : new TicTacToeService();
+    }
+}
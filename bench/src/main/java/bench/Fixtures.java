@@ -0,0 +1,47 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+final class Fixtures {
+    /** X and O alternate through these cells to a draw, so every move is accepted. */
+    static final int[] DRAW = {0, 1, 2, 4, 3, 5, 7, 6, 8};
+    /** A full cycle: the draw's moves, then a reset. */
+    static final int CYCLE = DRAW.length + 1;
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param step position in the cycle
+     * @return the next position, wrapping to the first move after the reset
+     */
+    static int advance(int step) {
+        return step + 1 == CYCLE ? 0 : step + 1;
+    }
+
+    /**
+     * @param step position in the cycle, below {@link #DRAW}'s length
+     * @return the side that moves at that step
+     */
+    static char sideOf(int step) {
+        return step % 2 == 0 ? 'X' : 'O';
+    }
+
+    /**
+     * Discards console output; the game and registry log every call.
+     * @return the console, for {@link #restore}
+     */
+    static PrintStream silence() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return console;
+    }
+
+    static void restore(PrintStream console) {
+        System.setOut(console);
+    }
+}
@@ -0,0 +1,103 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import server.GameService;
+import server.LockFreeTicTacToeService;
+import server.TicTacToeService;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game engine calls on one shared game, for the locked and the lock-free engine.
+ * Each thread plays the draw sequence and then resets, so one call in ten is
+ * a reset; with several threads the moves interleave and many are rejected,
+ * which still takes the game's lock or CAS. The {@code *Contended} variants
+ * run on every available core; {@code -t N} sets the count for the others.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameServiceBenchmark {
+    @Param({"locked", "lockFree"})
+    public String engine;
+
+    private GameService game;
+    private PrintStream console;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int step;
+
+        int next() {
+            int current = step;
+            step = Fixtures.advance(current);
+            return current;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        console = Fixtures.silence();
+        game = engine.equals("lockFree") ? new LockFreeTicTacToeService() : new TicTacToeService();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.restore(console);
+    }
+
+    @Benchmark
+    public Object makeMove(Cursor cursor) {
+        int step = cursor.next();
+        if (step == Fixtures.DRAW.length) {
+            return game.resetGame();
+        }
+        return game.makeMove(Fixtures.sideOf(step), Fixtures.DRAW[step]);
+    }
+
+    /**
+     * The typed move call the UIs and the binary protocol use.
+     */
+    @Benchmark
+    public long play(Cursor cursor) {
+        int step = cursor.next();
+        if (step == Fixtures.DRAW.length) {
+            game.resetGame();
+            return 0;
+        }
+        return game.play(Fixtures.sideOf(step), Fixtures.DRAW[step]);
+    }
+
+    @Benchmark
+    public char[] getBoard() {
+        return game.getBoard();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object makeMoveContended(Cursor cursor) {
+        return makeMove(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public char[] getBoardContended() {
+        return game.getBoard();
+    }
+}
@@ -0,0 +1,122 @@
+package bench;
+
+import server.GameSessionManager;
+import server.MoveJournal;
+import server.TicTacToeService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a journal of many games, then times a server restart on it:
+ * compaction and replay alone, and the full rebuild through
+ * {@link GameSessionManager#openJournal}, first on the raw file and again
+ * on the compacted one. Like {@link ParkedWaiters}, it runs once rather
+ * than under JMH, since a recovery cannot be repeated on the same file.
+ *
+ *   java -Xmx4g -cp bench/target/benchmarks.jar bench.JournalRecovery 1000000
+ *
+ * Arguments: games (default 1000000). Every game gets five moves; one in
+ * four is also reset and replayed, and one in ten is removed.
+ */
+public final class JournalRecovery {
+    // A legal 3x3 opening, X and O alternating
+    private static final int[] MOVES = {4, 0, 8, 2, 1};
+
+    private JournalRecovery() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("journal-recovery");
+        Path file = dir.resolve("games.journal");
+        PrintStream console = Fixtures.silence();
+        try {
+            long start = System.nanoTime();
+            long records = write(file, games);
+            console.printf("[Bench] Wrote %d games, %d records (%d MB) in %d ms%n", games, records,
+                records * MoveJournal.RECORD_BYTES >> 20, (System.nanoTime() - start) / 1_000_000);
+
+            // Replay into nothing, so this is the file work alone; it also compacts the file
+            Path copy = dir.resolve("copy.journal");
+            Files.copy(file, copy);
+            start = System.nanoTime();
+            try (MoveJournal journal = MoveJournal.open(copy, MoveJournal.SyncPolicy.NONE, 0, new Discard())) {
+                report(console, "Compacted and replayed", journal.getRecovery(), start);
+            }
+            Files.delete(copy);
+
+            report(console, "Rebuilt games from the raw file", file);
+            report(console, "Rebuilt games from the compacted file", file);
+        } finally {
+            Fixtures.restore(console);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static long write(Path file, int games) throws IOException {
+        try (MoveJournal journal = MoveJournal.open(file, MoveJournal.SyncPolicy.NONE, 0, new Discard())) {
+            journal.appendCreate(MoveJournal.DEFAULT_GAME_ID, 3, 3, 3);
+            for (long gameId = 1; gameId <= games; gameId++) {
+                journal.appendCreate(gameId, 3, 3, 3);
+                appendMoves(journal, gameId);
+                if (gameId % 4 == 0) {
+                    journal.appendReset(gameId);
+                    appendMoves(journal, gameId);
+                }
+                if (gameId % 10 == 0) {
+                    journal.appendRemove(gameId);
+                }
+            }
+            return journal.getRecordCount();
+        }
+    }
+
+    private static void appendMoves(MoveJournal journal, long gameId) {
+        for (int i = 0; i < MOVES.length; i++) {
+            journal.appendMove(gameId, i % 2 == 0 ? 'X' : 'O', MOVES[i]);
+        }
+    }
+
+    /**
+     * Times what a restarting server does: rebuild every game and attach the journal.
+     */
+    private static void report(PrintStream console, String what, Path file) throws IOException {
+        GameSessionManager sessions = new GameSessionManager();
+        long start = System.nanoTime();
+        try (MoveJournal journal = sessions.openJournal(file, MoveJournal.SyncPolicy.NONE, 0,
+                new TicTacToeService())) {
+            report(console, what, journal.getRecovery(), start);
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    private static void report(PrintStream console, String what, MoveJournal.Recovery recovery, long start) {
+        long nanos = System.nanoTime() - start;
+        console.printf("[Bench] %s: %d games, %d of %d records kept, in %d ms (%.1f M records/s)%n",
+            what, recovery.getGames(), recovery.getRecordsKept(), recovery.getRecordsRead(), nanos / 1_000_000,
+            recovery.getRecordsRead() * 1e3 / nanos);
+    }
+
+    private static final class Discard implements MoveJournal.Replay {
+        @Override
+        public void create(long gameId, int rows, int cols, int winLength) {
+        }
+
+        @Override
+        public void move(long gameId, char player, int position) {
+        }
+
+        @Override
+        public void reset(long gameId) {
+        }
+
+        @Override
+        public void aiPlayer(long gameId, char side) {
+        }
+    }
+}
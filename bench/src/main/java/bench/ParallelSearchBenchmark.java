@@ -0,0 +1,104 @@
+package bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.ParallelSearch;
+import server.TranspositionTable;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded against root-split search on the same opening positions,
+ * to a fixed depth. One operation searches all four positions with a fresh
+ * transposition table, so neither mode reuses the other's work. The
+ * {@code nodes} counter is nodes searched per second; the speedup is the
+ * ratio of the two modes' scores. {@code threads} 0 sizes the pool to the
+ * available cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+    @Param({"single", "parallel"})
+    public String mode;
+
+    @Param({"15"})
+    public int size;
+
+    @Param({"5"})
+    public int winLength;
+
+    @Param({"6"})
+    public int depth;
+
+    @Param({"0"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private char[][] positions;
+    private char[] sides;
+    private ParallelSearch search;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+
+        // A few opening positions around the centre
+        positions = new char[4][size * size];
+        sides = new char[positions.length];
+        int centre = (size / 2) * size + size / 2;
+        int[][] stones = {{centre}, {centre, centre + 1}, {centre, centre + size + 1, centre + 1},
+            {centre, centre + 1, centre + size, centre - size}};
+        for (int p = 0; p < positions.length; p++) {
+            Arrays.fill(positions[p], '-');
+            for (int i = 0; i < stones[p].length; i++) {
+                positions[p][stones[p][i]] = i % 2 == 0 ? 'X' : 'O';
+            }
+            sides[p] = stones[p].length % 2 == 0 ? 'X' : 'O';
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshSearch() {
+        search = new ParallelSearch(size, size, winLength, new TranspositionTable(1 << 20), pool,
+            mode.equals("parallel") ? 1 : 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int searchOpenings(Nodes counter) {
+        int moves = 0;
+        for (int p = 0; p < positions.length; p++) {
+            moves += search.bestMove(positions[p], sides[p], Long.MAX_VALUE / 4, depth);
+        }
+        counter.nodes += search.getNodes();
+        return moves;
+    }
+}
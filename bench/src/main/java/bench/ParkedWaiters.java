@@ -0,0 +1,79 @@
+package bench;
+
+import server.RequestExecutors;
+import server.TicTacToeService;
+
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks many waiters in {@link TicTacToeService#awaitChange}, each on its
+ * own request thread from {@link RequestExecutors}, reports the heap they
+ * hold, then wakes them all with one move. A footprint check rather than
+ * a JMH benchmark: it runs once and measures heap, not time per operation.
+ *
+ *   java -Xmx256m -cp bench/target/benchmarks.jar bench.ParkedWaiters 100000
+ *
+ * Arguments: waiters (default 100000). Without virtual threads (before
+ * Java 21) the count is capped at 2000 platform threads.
+ */
+public final class ParkedWaiters {
+    private static final int PLATFORM_THREAD_CAP = 2000;
+
+    private ParkedWaiters() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int waiters = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        boolean virtual = RequestExecutors.virtualThreadsAvailable();
+        if (!virtual && waiters > PLATFORM_THREAD_CAP) {
+            System.out.println("[Bench] Virtual threads need Java 21; parking "
+                + PLATFORM_THREAD_CAP + " waiters on platform threads.");
+            waiters = PLATFORM_THREAD_CAP;
+        }
+
+        PrintStream console = Fixtures.silence();
+        TicTacToeService game = new TicTacToeService();
+        ExecutorService executor = RequestExecutors.newRequestExecutor("waiter-", waiters);
+        CountDownLatch parked = new CountDownLatch(waiters);
+        CountDownLatch woken = new CountDownLatch(waiters);
+        long version = game.getVersion();
+        long heapBefore = usedHeap();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < waiters; i++) {
+            executor.execute(() -> {
+                parked.countDown();
+                if (game.awaitChange(version, TicTacToeService.MAX_AWAIT_MILLIS) != null) {
+                    woken.countDown();
+                }
+            });
+        }
+        parked.await();
+        // Let the last ones reach the condition before measuring
+        Thread.sleep(500);
+        long heapParked = usedHeap();
+        console.printf("[Bench] %d waiters parked in %d ms on %s; heap grew %d KB (%d bytes each)%n",
+            waiters, (System.nanoTime() - start) / 1_000_000,
+            virtual ? "virtual threads" : "platform threads",
+            (heapParked - heapBefore) / 1024, (heapParked - heapBefore) / waiters);
+
+        start = System.nanoTime();
+        game.play('X', 4);
+        boolean all = woken.await(TicTacToeService.MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+        console.printf("[Bench] One move woke %s waiters in %d ms%n",
+            all ? "all" : waiters - woken.getCount() + " of " + waiters, (System.nanoTime() - start) / 1_000_000);
+        executor.shutdown();
+        Fixtures.restore(console);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,104 @@
+package bench;
+
+import client.NearCache;
+import client.ServiceReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import registry.Register;
+import server.Server;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Register#lookup} with one thread and on every core, over many
+ * names and on one hot name, next to a {@link NearCache} hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+    // Below the registry's default bound, so nothing is evicted
+    private static final int SERVICES = 1000;
+
+    private Register registry;
+    private NearCache nearCache;
+    private String[] names;
+    private PrintStream console;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        String next(String[] names) {
+            String name = names[index];
+            index = index + 1 == names.length ? 0 : index + 1;
+            return name;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        console = Fixtures.silence();
+        Server server = new Server();
+        registry = new Register();
+        // Holds every name for the whole run
+        nearCache = new NearCache(registry, TimeUnit.HOURS.toMillis(1), SERVICES);
+        names = new String[SERVICES];
+        for (int i = 0; i < SERVICES; i++) {
+            names[i] = "Game-" + i;
+            registry.rebind(names[i], new ServiceReference(names[i], server.getDispatcher()));
+            nearCache.lookup(names[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        nearCache.close();
+        Fixtures.restore(console);
+    }
+
+    @Benchmark
+    public ServiceReference lookup(Cursor cursor) {
+        return registry.lookup(cursor.next(names));
+    }
+
+    @Benchmark
+    public ServiceReference lookupMiss() {
+        return registry.lookup("Missing");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ServiceReference lookupContended(Cursor cursor) {
+        return registry.lookup(cursor.next(names));
+    }
+
+    /**
+     * Every thread on the same binding, the case for a popular game.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ServiceReference lookupHotNameContended() {
+        return registry.lookup(names[0]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ServiceReference nearCacheContended(Cursor cursor) {
+        return nearCache.get(cursor.next(names));
+    }
+}
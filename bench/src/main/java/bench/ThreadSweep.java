@@ -0,0 +1,52 @@
+package bench;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs {@link EngineScalingBenchmark} at 1, 2, 4, ... 64 threads and prints
+ * one line per engine, layout and thread count, so the locked and lock-free
+ * engines can be compared as contention grows. Other JMH options on the
+ * command line (e.g. {@code -f 3} or {@code -p layout=shared}) apply to every run.
+ *
+ *   java -cp bench/target/benchmarks.jar bench.ThreadSweep
+ */
+public final class ThreadSweep {
+    private static final int MAX_THREADS = 64;
+
+    private ThreadSweep() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        List<String> lines = new ArrayList<>();
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            Options options = new OptionsBuilder()
+                .parent(cli)
+                .include(EngineScalingBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build();
+            Collection<RunResult> results = new Runner(options).run();
+            for (RunResult result : results) {
+                lines.add(String.format("%-9s %-10s %3d threads  %10.2f +- %.2f %s",
+                    result.getParams().getParam("engine"),
+                    result.getParams().getParam("layout"),
+                    threads,
+                    result.getPrimaryResult().getScore(),
+                    result.getPrimaryResult().getScoreError(),
+                    result.getPrimaryResult().getScoreUnit()));
+            }
+        }
+        System.out.println();
+        System.out.println("Mixed move/read throughput by thread count:");
+        lines.sort(null);
+        lines.forEach(System.out::println);
+    }
+}
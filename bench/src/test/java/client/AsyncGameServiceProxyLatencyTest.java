@@ -0,0 +1,80 @@
+package client;
+
+import org.junit.jupiter.api.Test;
+import server.GameSnapshot;
+import server.Server;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Puts a {@link LatencyInjector} with a long delay in front of the game and
+ * makes the calls the UIs make from the Swing event thread, through
+ * {@link AsyncGameServiceProxy}. The event thread must hand every call off
+ * at once and keep running other events while the calls are in flight.
+ */
+class AsyncGameServiceProxyLatencyTest {
+    private static final long LATENCY_MILLIS = 2_000;
+    // Far below the latency, far above an idle event queue
+    private static final long RESPONSIVE_MILLIS = 300;
+
+    @Test
+    void eventThreadStaysResponsiveWhileCallsAreDelayed() throws Exception {
+        Server server = new Server();
+        LatencyInjector injector = new LatencyInjector(server.getDispatcher(), LATENCY_MILLIS);
+        AsyncGameServiceProxy game = new AsyncGameServiceProxy(new ServiceReference("TicTacToeGame", injector));
+
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        AtomicLong onEventThreadNanos = new AtomicLong();
+        long sent = System.nanoTime();
+        EventQueue.invokeAndWait(() -> {
+            long start = System.nanoTime();
+            // A click: the move and the board refresh in one batch, as GameUI sends it
+            calls.add(game.submit(game.batch().makeMove('X', 4).getSnapshot()));
+            calls.add(game.getSnapshot());
+            calls.add(game.awaitChange(0, 10_000));
+            calls.add(game.getStatus());
+            onEventThreadNanos.set(System.nanoTime() - start);
+        });
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(onEventThreadNanos.get()) < RESPONSIVE_MILLIS,
+            "calls held the event thread for " + TimeUnit.NANOSECONDS.toMillis(onEventThreadNanos.get()) + " ms");
+
+        // The calls are still waiting out their latency; other events must run meanwhile
+        for (int i = 0; i < 5; i++) {
+            long probeMillis = probe();
+            assertTrue(probeMillis < RESPONSIVE_MILLIS, "event thread took " + probeMillis + " ms to run a probe");
+        }
+
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).get(4 * LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        assertTrue(elapsedMillis(sent) >= LATENCY_MILLIS, "latency was not applied");
+        Object[] click = (Object[]) calls.get(0).join();
+        assertEquals("Move accepted. Next player: O", click[0]);
+        assertEquals('X', ((GameSnapshot) click[1]).getCell(4));
+        assertInstanceOf(GameSnapshot.class, calls.get(2).join());
+        assertEquals(0, injector.getBlockingEdtCalls(), "a blocking call ran on the event thread");
+    }
+
+    /**
+     * @return milliseconds from posting an event to the event thread running it
+     */
+    private static long probe() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        long posted = System.nanoTime();
+        EventQueue.invokeLater(ran::countDown);
+        assertTrue(ran.await(LATENCY_MILLIS, TimeUnit.MILLISECONDS), "probe never ran");
+        return elapsedMillis(posted);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
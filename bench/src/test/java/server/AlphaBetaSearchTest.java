@@ -0,0 +1,128 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The search must take an immediate win, block the opponent's immediate
+ * win, and return -1 once the game is over, alone and split over a pool.
+ */
+class AlphaBetaSearchTest {
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(2);
+    private static final int DEPTH = 4;
+
+    @Test
+    void takesAnImmediateWin() {
+        // O also threatens on the bottom row; winning first is still right
+        char[] cells = cells(
+            ".......",
+            ".......",
+            ".XXX...",
+            ".......",
+            ".......",
+            ".......",
+            "OOO....");
+        int move = search(7, 7, 4).bestMove(cells, 'X', BUDGET, DEPTH);
+        assertTrue(move == 14 || move == 18, "expected a winning cell, got " + move);
+    }
+
+    @Test
+    void takesTheOnlyWinOnTheAntiDiagonal() {
+        char[] cells = cells(
+            "....O",
+            "...O.",
+            "..O..",
+            "X....",
+            "XX.X.");
+        // X would win at 22 next; O's diagonal ends at 16 since 20 is X's
+        assertEquals(16, search(5, 5, 4).bestMove(cells, 'O', BUDGET, DEPTH));
+    }
+
+    @Test
+    void blocksTheOpponentsImmediateWin() {
+        char[] cells = cells(
+            "OOO....",
+            ".......",
+            "...X...",
+            "..X....",
+            ".......",
+            ".......",
+            "......X");
+        assertEquals(3, search(7, 7, 4).bestMove(cells, 'X', BUDGET, DEPTH));
+    }
+
+    @Test
+    void blocksOnANonSquareBoard() {
+        char[] cells = cells(
+            "X.........",
+            "X.........",
+            "X.....O...",
+            "......O...");
+        assertEquals(30, search(4, 10, 4).bestMove(cells, 'O', BUDGET, DEPTH));
+    }
+
+    @Test
+    void returnsMinusOneOnAWonBoard() {
+        char[] cells = cells(
+            "XXXX...",
+            "OOO....",
+            ".......",
+            ".......",
+            ".......",
+            ".......",
+            ".......");
+        assertEquals(-1, search(7, 7, 4).bestMove(cells, 'O', BUDGET, DEPTH));
+    }
+
+    @Test
+    void returnsMinusOneOnAFullBoard() {
+        char[] cells = cells(
+            "XOX",
+            "XOO",
+            "OXX");
+        assertEquals(-1, search(3, 3, 3).bestMove(cells, 'O', BUDGET, DEPTH));
+    }
+
+    @Test
+    void parallelSearchAgrees() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelSearch search = new ParallelSearch(7, 7, 4, new TranspositionTable(1 << 16), pool, 1);
+            char[] block = cells(
+                "OOO....",
+                ".......",
+                "...X...",
+                "..X....",
+                ".......",
+                ".......",
+                "......X");
+            assertEquals(3, search.bestMove(block, 'X', BUDGET, DEPTH));
+
+            char[] won = cells(
+                "X......",
+                "OX.....",
+                "OOX....",
+                "...X...",
+                ".......",
+                ".......",
+                ".......");
+            assertEquals(-1, search.bestMove(won, 'O', BUDGET, DEPTH));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static AlphaBetaSearch search(int rows, int cols, int winLength) {
+        return new AlphaBetaSearch(rows, cols, winLength, new TranspositionTable(1 << 16));
+    }
+
+    /** Row strings of 'X', 'O' and '.' to row-major cells with '-' for empty. */
+    private static char[] cells(String... rows) {
+        return String.join("", rows).replace('.', '-').toCharArray();
+    }
+}
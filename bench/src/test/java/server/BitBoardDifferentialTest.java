@@ -0,0 +1,53 @@
+package server;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Plays the same random calls on a bitboard engine and on the original
+ * char[] engine ({@link CharArrayTicTacToe}) and compares the result,
+ * status, winner, turn and board after every call. Most calls are legal
+ * moves; the rest are out of turn, off the board, on a taken cell or after
+ * the game ended, with an occasional reset.
+ */
+class BitBoardDifferentialTest {
+    private static final int SEQUENCES = 300_000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"locked", "lockFree"})
+    void matchesCharArrayEngine(String engine) {
+        SplittableRandom random = new SplittableRandom(42);
+        GameService game = engine.equals("lockFree") ? new LockFreeTicTacToeService() : new TicTacToeService();
+        CharArrayTicTacToe oracle = new CharArrayTicTacToe();
+
+        for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+            assertEquals(oracle.resetGame(), game.resetGame());
+            int calls = random.nextInt(1, 13);
+            for (int call = 0; call < calls; call++) {
+                String context = "sequence " + sequence + ", call " + call;
+                if (random.nextInt(40) == 0) {
+                    assertEquals(oracle.resetGame(), game.resetGame(), context);
+                } else {
+                    char player = random.nextInt(8) == 0 ? opponent(oracle.getCurrentPlayer()) : oracle.getCurrentPlayer();
+                    int position = random.nextInt(20) == 0 ? random.nextInt(-3, 12) : random.nextInt(9);
+                    context += ": " + player + " at " + position;
+                    assertEquals(oracle.makeMove(player, position), game.makeMove(player, position), context);
+                }
+
+                assertEquals(oracle.getStatus(), game.getStatus(), context);
+                assertEquals(GameOutcome.ofStatus(oracle.getStatus()), game.getOutcome(), context);
+                assertEquals(oracle.getCurrentPlayer(), game.getCurrentPlayer(), context);
+                assertArrayEquals(oracle.getBoard(), game.getBoard(), context);
+            }
+        }
+    }
+
+    private static char opponent(char player) {
+        return player == 'X' ? 'O' : 'X';
+    }
+}
@@ -0,0 +1,117 @@
+package server;
+
+/**
+ * The original char[] Tic-Tac-Toe engine, kept unchanged apart from its
+ * logging as the oracle for {@link BitBoardDifferentialTest}.
+ */
+final class CharArrayTicTacToe {
+    private final char[] board;
+    private char currentPlayer;
+    private String status;
+
+    CharArrayTicTacToe() {
+        this.board = new char[9];
+        for (int i = 0; i < 9; i++) {
+            board[i] = '-';
+        }
+        this.currentPlayer = 'X';
+        this.status = "IN_PROGRESS";
+    }
+
+    String makeMove(char player, int position) {
+        // Check if game is over
+        if (!status.equals("IN_PROGRESS")) {
+            return "Game is already over. Status: " + status;
+        }
+
+        // Validate turn
+        if (player != currentPlayer) {
+            return "Not your turn! Current player: " + currentPlayer;
+        }
+
+        // Validate position
+        if (position < 0 || position > 8) {
+            return "Invalid position! Must be between 0 and 8.";
+        }
+
+        // Check if position is occupied
+        if (board[position] != '-') {
+            return "Position already occupied! Choose another.";
+        }
+
+        // Make the move
+        board[position] = player;
+
+        // Check for win
+        if (checkWin(player)) {
+            status = "Player " + player + " wins!";
+            return status;
+        }
+
+        // Check for draw
+        if (checkDraw()) {
+            status = "Draw!";
+            return status;
+        }
+
+        // Switch player
+        currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
+        return "Move accepted. Next player: " + currentPlayer;
+    }
+
+    char[] getBoard() {
+        return board.clone();
+    }
+
+    String getStatus() {
+        return status;
+    }
+
+    char getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    String resetGame() {
+        for (int i = 0; i < 9; i++) {
+            board[i] = '-';
+        }
+        currentPlayer = 'X';
+        status = "IN_PROGRESS";
+        return "Game reset successfully.";
+    }
+
+    private boolean checkWin(char player) {
+        // Check rows
+        for (int i = 0; i < 9; i += 3) {
+            if (board[i] == player && board[i + 1] == player && board[i + 2] == player) {
+                return true;
+            }
+        }
+
+        // Check columns
+        for (int i = 0; i < 3; i++) {
+            if (board[i] == player && board[i + 3] == player && board[i + 6] == player) {
+                return true;
+            }
+        }
+
+        // Check diagonals
+        if (board[0] == player && board[4] == player && board[8] == player) {
+            return true;
+        }
+        if (board[2] == player && board[4] == player && board[6] == player) {
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean checkDraw() {
+        for (char cell : board) {
+            if (cell == '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,188 @@
+package server;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Races makeMove, play and resetGame on one shared game from several
+ * threads, for the locked and the lock-free engine, while readers check
+ * that every state they see is one a real game could reach.
+ */
+class GameServiceStressTest {
+    private static final int MOVERS = 8;
+    private static final int READERS = 2;
+    private static final int CALLS_PER_MOVER = 50_000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"locked", "lockFree"})
+    void concurrentMovesAndResetsKeepStateValid(String engine) throws Exception {
+        GameService game = engine.equals("lockFree") ? new LockFreeTicTacToeService() : new TicTacToeService();
+        ExecutorService pool = Executors.newFixedThreadPool(MOVERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean moversDone = new AtomicBoolean();
+        try {
+            List<Future<Long>> movers = new ArrayList<>();
+            for (int i = 0; i < MOVERS; i++) {
+                movers.add(pool.submit(() -> move(game, start)));
+            }
+            List<Future<Long>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(pool.submit(() -> read(game, start, moversDone)));
+            }
+
+            start.countDown();
+            long changes = 0;
+            for (Future<Long> mover : movers) {
+                changes += mover.get(2, TimeUnit.MINUTES);
+            }
+            moversDone.set(true);
+            for (Future<Long> reader : readers) {
+                assertTrue(reader.get(1, TimeUnit.MINUTES) > 0, "reader saw no states");
+            }
+
+            long word = game.getStateWord();
+            checkWord(word);
+            checkSnapshot(game.getSnapshot());
+            // Every accepted move and every reset bumps the version exactly once
+            assertEquals(changes, GameProtocol.versionOf(word), "version lost or doubled an update");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays random moves, one in twelve a reset, some out of turn or off the board.
+     * @return accepted moves plus resets
+     */
+    private static long move(GameService game, CountDownLatch start) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        start.await();
+        long changes = 0;
+        for (int i = 0; i < CALLS_PER_MOVER; i++) {
+            int pick = random.nextInt(12);
+            if (pick == 0) {
+                game.resetGame();
+                changes++;
+                continue;
+            }
+            char player = random.nextBoolean() ? 'X' : 'O';
+            int position = random.nextInt(-1, 10);
+            if (pick == 1) {
+                // The string path goes through the same validation
+                if (isAccepted(game.makeMove(player, position))) {
+                    changes++;
+                }
+                continue;
+            }
+            long moveWord = game.play(player, position);
+            checkWord(MoveResult.stateWord(moveWord));
+            if (MoveResult.of(moveWord).isAccepted()) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Reads state words and snapshots until the movers finish.
+     * @return how many states were checked
+     */
+    private static long read(GameService game, CountDownLatch start, AtomicBoolean moversDone)
+            throws InterruptedException {
+        start.await();
+        long seen = 0;
+        long lastVersion = -1;
+        while (!moversDone.get()) {
+            long word = game.getStateWord();
+            checkWord(word);
+            long version = GameProtocol.versionOf(word);
+            if (version < lastVersion) {
+                fail("version went back from " + lastVersion + " to " + version);
+            }
+            lastVersion = version;
+
+            GameSnapshot snapshot = game.getSnapshot();
+            checkSnapshot(snapshot);
+            if (snapshot.getVersion() < lastVersion) {
+                fail("snapshot version " + snapshot.getVersion() + " older than " + lastVersion);
+            }
+            lastVersion = snapshot.getVersion();
+            seen += 2;
+        }
+        return seen;
+    }
+
+    /**
+     * A winning or drawing move returns the status text rather than
+     * "Move accepted", so accepted means not one of the rejections.
+     */
+    private static boolean isAccepted(String message) {
+        return !(message.startsWith("Not your turn") || message.startsWith("Invalid position")
+            || message.startsWith("Position already") || message.startsWith("Game is already over"));
+    }
+
+    private static void checkWord(long word) {
+        int state = GameProtocol.stateOf(word);
+        check(GameProtocol.xMask(state), GameProtocol.oMask(state), GameProtocol.currentPlayer(state),
+            GameProtocol.outcome(state), word);
+    }
+
+    private static void checkSnapshot(GameSnapshot snapshot) {
+        int xMask = 0;
+        int oMask = 0;
+        for (int cell = 0; cell < snapshot.getCellCount(); cell++) {
+            if (snapshot.getCell(cell) == 'X') {
+                xMask |= 1 << cell;
+            } else if (snapshot.getCell(cell) == 'O') {
+                oMask |= 1 << cell;
+            }
+        }
+        check(xMask, oMask, snapshot.getCurrentPlayer(), snapshot.getOutcome().ordinal(), snapshot);
+    }
+
+    private static void check(int xMask, int oMask, char currentPlayer, int outcome, Object seen) {
+        int lead = Integer.bitCount(xMask) - Integer.bitCount(oMask);
+        boolean xWon = BitBoard.isWin(xMask);
+        boolean oWon = BitBoard.isWin(oMask);
+        boolean full = (xMask | oMask) == BitBoard.FULL_MASK;
+
+        if ((xMask & oMask) != 0 || lead < 0 || lead > 1 || (xWon && oWon)) {
+            fail("impossible board: " + seen);
+        }
+        switch (outcome) {
+            case GameProtocol.IN_PROGRESS:
+                if (xWon || oWon || full || currentPlayer != (lead == 0 ? 'X' : 'O')) {
+                    fail("game in progress but should not be: " + seen);
+                }
+                break;
+            case GameProtocol.X_WINS:
+                if (!xWon || lead != 1) {
+                    fail("X wins without X's line: " + seen);
+                }
+                break;
+            case GameProtocol.O_WINS:
+                if (!oWon || lead != 0) {
+                    fail("O wins without O's line: " + seen);
+                }
+                break;
+            default:
+                if (!full || xWon || oWon) {
+                    fail("draw on a board that is not a draw: " + seen);
+                }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Win detection on m,n,k boards: lines along the edges, both diagonals,
+ * k shorter than a side, k == 1 and boards that are not square, plus
+ * random boards checked against a plain scan of every line.
+ */
+class MnkBoardTest {
+
+    @Test
+    void rowAlongTheBottomEdgeWins() {
+        MnkBoard board = board(4,
+            ".......",
+            ".......",
+            ".......",
+            "...XXXX");
+        assertTrue(board.isWinningMove(cell(7, 3, 6)));
+        assertTrue(board.isWinningMove(cell(7, 3, 3)));
+    }
+
+    @Test
+    void columnAlongTheLeftEdgeWins() {
+        MnkBoard board = board(4,
+            "....",
+            "X...",
+            "X...",
+            "X...",
+            "X...",
+            "....");
+        assertTrue(board.isWinningMove(cell(4, 1, 0)));
+        assertTrue(board.isWinningMove(cell(4, 4, 0)));
+    }
+
+    @Test
+    void mainDiagonalWins() {
+        MnkBoard board = board(3,
+            "O....",
+            ".O...",
+            "..O..",
+            ".....",
+            ".....");
+        assertTrue(board.isWinningMove(cell(5, 0, 0)));
+        // Checked from the middle stone, not just the ends
+        assertTrue(board.isWinningMove(cell(5, 1, 1)));
+    }
+
+    @Test
+    void antiDiagonalWins() {
+        MnkBoard board = board(3,
+            ".....",
+            ".....",
+            "....X",
+            "...X.",
+            "..X..");
+        assertTrue(board.isWinningMove(cell(5, 2, 4)));
+        assertTrue(board.isWinningMove(cell(5, 4, 2)));
+    }
+
+    @Test
+    void shortRunGapAndOpponentStoneDoNotWin() {
+        MnkBoard board = board(3,
+            "XX.X.",
+            "XXOX.",
+            ".....",
+            ".....",
+            ".....");
+        assertFalse(board.isWinningMove(cell(5, 0, 1)));
+        assertFalse(board.isWinningMove(cell(5, 0, 3)));
+        assertFalse(board.isWinningMove(cell(5, 1, 1)));
+        assertFalse(board.isWinningMove(cell(5, 1, 3)));
+    }
+
+    @Test
+    void runsDoNotWrapAroundRowEnds() {
+        // Row-major neighbours across the edge are not on one line
+        MnkBoard board = board(3,
+            "...XX",
+            "X....",
+            "....O",
+            "O...O",
+            ".....");
+        assertFalse(board.isWinningMove(cell(5, 0, 4)));
+        assertFalse(board.isWinningMove(cell(5, 1, 0)));
+        assertFalse(board.isWinningMove(cell(5, 3, 0)));
+        assertFalse(board.isWinningMove(cell(5, 3, 4)));
+    }
+
+    @Test
+    void winLengthOneWinsWithAnyStone() {
+        MnkBoard board = new MnkBoard(3, 4, 1);
+        board.place('O', 7);
+        assertTrue(board.isWinningMove(7));
+        board.place('X', 0);
+        assertTrue(board.isWinningMove(0));
+    }
+
+    @Test
+    void wideBoardWinsAcrossButNotDown() {
+        MnkBoard board = board(4,
+            "..X....",
+            "..X....",
+            "..XOOOO");
+        assertTrue(board.isWinningMove(cell(7, 2, 6)));
+        assertTrue(board.isWinningMove(cell(7, 2, 3)));
+        assertFalse(board.isWinningMove(cell(7, 2, 2)));
+    }
+
+    @Test
+    void tallBoardWinsDownAndDiagonally() {
+        MnkBoard board = board(4,
+            "X...",
+            "X...",
+            "X..O",
+            "X.O.",
+            ".O..",
+            "O...");
+        assertTrue(board.isWinningMove(cell(4, 0, 0)));
+        assertTrue(board.isWinningMove(cell(4, 5, 0)));
+        assertTrue(board.isWinningMove(cell(4, 2, 3)));
+    }
+
+    @Test
+    void fillsUpAndClears() {
+        MnkBoard board = new MnkBoard(2, 3, 3);
+        for (int i = 0; i < 6; i++) {
+            assertFalse(board.isFull());
+            board.place(i % 2 == 0 ? 'X' : 'O', i);
+        }
+        assertTrue(board.isFull());
+        assertArrayEquals("XOXOXO".toCharArray(), board.toCharArray());
+
+        board.clear();
+        assertFalse(board.isFull());
+        assertFalse(board.isOccupied(0));
+        assertArrayEquals("------".toCharArray(), board.toCharArray());
+    }
+
+    @Test
+    void rejectsWinLengthThatCannotFit() {
+        assertThrows(IllegalArgumentException.class, () -> new MnkBoard(3, 4, 5));
+        assertThrows(IllegalArgumentException.class, () -> new MnkBoard(3, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MnkBoard(0, 4, 1));
+    }
+
+    @Test
+    void matchesALineScanOnRandomBoards() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[][] shapes = {{3, 3, 3}, {5, 5, 3}, {4, 9, 4}, {9, 4, 4}, {15, 15, 5}, {10, 13, 5}, {1, 6, 3}};
+        for (int round = 0; round < 2_000; round++) {
+            int[] shape = shapes[random.nextInt(shapes.length)];
+            int rows = shape[0];
+            int cols = shape[1];
+            int k = shape[2];
+            MnkBoard board = new MnkBoard(rows, cols, k);
+            char[] cells = new char[rows * cols];
+            for (int i = 0; i < cells.length; i++) {
+                int pick = random.nextInt(3);
+                cells[i] = pick == 0 ? 'X' : pick == 1 ? 'O' : '-';
+                if (cells[i] != '-') {
+                    board.place(cells[i], i);
+                }
+            }
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != '-') {
+                    assertEquals(scanWins(cells, rows, cols, k, i), board.isWinningMove(i),
+                        rows + "x" + cols + " k=" + k + " cell " + i + " " + new String(cells));
+                }
+            }
+        }
+    }
+
+    /** Whether any k-long line through the cell is all the cell's side. */
+    private static boolean scanWins(char[] cells, int rows, int cols, int k, int position) {
+        char side = cells[position];
+        int row = position / cols;
+        int col = position % cols;
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] step : steps) {
+            for (int back = 0; back < k; back++) {
+                int startRow = row - back * step[0];
+                int startCol = col - back * step[1];
+                boolean line = true;
+                for (int i = 0; i < k && line; i++) {
+                    int r = startRow + i * step[0];
+                    int c = startCol + i * step[1];
+                    line = r >= 0 && r < rows && c >= 0 && c < cols && cells[r * cols + c] == side;
+                }
+                if (line) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Builds a board from rows of 'X', 'O' and '.'. */
+    private static MnkBoard board(int winLength, String... rows) {
+        MnkBoard board = new MnkBoard(rows.length, rows[0].length(), winLength);
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < rows[r].length(); c++) {
+                char cell = rows[r].charAt(c);
+                if (cell != '.') {
+                    board.place(cell, cell(rows[r].length(), r, c));
+                }
+            }
+        }
+        return board;
+    }
+
+    private static int cell(int cols, int row, int col) {
+        return row * cols + col;
+    }
+}
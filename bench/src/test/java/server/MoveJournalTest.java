@@ -0,0 +1,221 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replay and compaction: what survives a reopen for each record type,
+ * that a torn last record is skipped, and that games come back through
+ * {@link GameSessionManager#openJournal} as they were.
+ */
+class MoveJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void compactionKeepsOnlyWhatRebuildsLiveGames() throws IOException {
+        Path file = dir.resolve("games.journal");
+        try (MoveJournal journal = open(file, new ArrayList<>())) {
+            journal.appendCreate(1, 3, 3, 3);
+            journal.appendMove(1, 'X', 0);
+            journal.appendAiPlayer(1, 'O');
+            journal.appendMove(1, 'O', 4);
+            journal.appendReset(1);
+            journal.appendMove(1, 'X', 2);
+            journal.appendCreate(2, 7, 7, 4);
+            journal.appendMove(2, 'X', 10);
+            journal.appendAiPlayer(1, 'X');
+            journal.appendRemove(2);
+            journal.appendMove(1, 'O', 5);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (MoveJournal journal = open(file, replayed)) {
+            // Moves before the reset and the older AI record are dropped; the AI outlives the reset
+            assertEquals(List.of("create 1 3x3 k3", "move 1 X 2", "ai 1 X", "move 1 O 5"), replayed);
+            MoveJournal.Recovery recovery = journal.getRecovery();
+            assertEquals(11, recovery.getRecordsRead());
+            assertEquals(4, recovery.getRecordsKept());
+            assertEquals(0, recovery.getRecordsSkipped());
+            assertEquals(1, recovery.getGames());
+            assertEquals(2, recovery.getLastGameId());
+            // Plus a removal that keeps game 2's ID from being handed out again
+            assertEquals(5, journal.getRecordCount());
+        }
+
+        // A compacted file compacts to itself
+        replayed.clear();
+        try (MoveJournal journal = open(file, replayed)) {
+            assertEquals(List.of("create 1 3x3 k3", "move 1 X 2", "ai 1 X", "move 1 O 5"), replayed);
+            assertEquals(5, journal.getRecovery().getRecordsRead());
+            assertEquals(2, journal.getRecovery().getLastGameId());
+            assertEquals(5, journal.getRecordCount());
+        }
+    }
+
+    @Test
+    void aiTurnedOffReplaysAsOff() throws IOException {
+        Path file = dir.resolve("ai.journal");
+        try (MoveJournal journal = open(file, new ArrayList<>())) {
+            journal.appendCreate(3, 3, 3, 3);
+            journal.appendAiPlayer(3, 'O');
+            journal.appendAiPlayer(3, '-');
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (MoveJournal journal = open(file, replayed)) {
+            assertEquals(List.of("create 3 3x3 k3", "ai 3 -"), replayed);
+        }
+    }
+
+    @Test
+    void tornLastRecordIsSkipped() throws IOException {
+        Path file = dir.resolve("torn.journal");
+        long lastRecord;
+        try (MoveJournal journal = open(file, new ArrayList<>())) {
+            journal.appendCreate(1, 3, 3, 3);
+            journal.appendMove(1, 'X', 4);
+            journal.appendMove(1, 'O', 0);
+            lastRecord = (journal.getRecordCount() - 1) * MoveJournal.RECORD_BYTES;
+        }
+        // A crash mid-append: the ID reached the disk, half of the second word did not
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), lastRecord + 12);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (MoveJournal journal = open(file, replayed)) {
+            assertEquals(List.of("create 1 3x3 k3", "move 1 X 4"), replayed);
+            assertEquals(1, journal.getRecovery().getRecordsSkipped());
+            assertEquals(2, journal.getRecovery().getRecordsRead());
+        }
+    }
+
+    @Test
+    void alwaysPolicyForcesBeforeReturning() throws IOException {
+        Path file = dir.resolve("always.journal");
+        try (MoveJournal journal = MoveJournal.open(file, MoveJournal.SyncPolicy.ALWAYS, 0, new Recorder(null))) {
+            journal.appendCreate(1, 3, 3, 3);
+            journal.awaitDurable(journal.appendMove(1, 'X', 4));
+            assertTrue(journal.getSyncCount() > 0, "no force before the move returned");
+        }
+    }
+
+    @Test
+    void gamesComeBackThroughTheSessionManager() throws IOException {
+        Path file = dir.resolve("sessions.journal");
+        char[] classic;
+        char[] large;
+        long largeId;
+        long classicId;
+
+        GameSessionManager before = new GameSessionManager();
+        try (MoveJournal journal = before.openJournal(file, MoveJournal.SyncPolicy.NONE, 0, new TicTacToeService())) {
+            classicId = before.createGame();
+            TicTacToeService game = (TicTacToeService) before.getGame(classicId);
+            game.setAiPlayer('O');
+            // The 3x3 AI answers each move before play returns
+            game.play('X', 4);
+            game.play('X', cells(game)[0] == '-' ? 0 : 2);
+
+            largeId = before.createGame(7, 7, 4);
+            GameService other = before.getGame(largeId);
+            other.play('X', 24);
+            other.resetGame();
+            other.play('X', 10);
+            other.play('O', 11);
+
+            long removed = before.createGame();
+            before.getGame(removed).play('X', 0);
+            before.removeGame(removed);
+
+            classic = cells(game);
+            large = cells(other);
+        } finally {
+            before.shutdown();
+        }
+
+        GameSessionManager after = new GameSessionManager();
+        try (MoveJournal journal = after.openJournal(file, MoveJournal.SyncPolicy.NONE, 0, new TicTacToeService())) {
+            assertEquals(2, after.size());
+            assertArrayEquals(classic, cells(after.getGame(classicId)));
+            assertArrayEquals(large, cells(after.getGame(largeId)));
+            // New IDs continue after the removed game's
+            assertEquals(largeId + 2, after.createGame());
+
+            // The AI came back too: it answers the next move
+            GameService game = after.getGame(classicId);
+            int stones = stones(game);
+            game.play('X', new String(cells(game)).indexOf('-'));
+            assertEquals(stones + 2, stones(game));
+        } finally {
+            after.shutdown();
+        }
+    }
+
+    private static char[] cells(GameService game) {
+        GameSnapshot snapshot = game.getSnapshot();
+        char[] cells = new char[snapshot.getCellCount()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = snapshot.getCell(i);
+        }
+        return cells;
+    }
+
+    private static int stones(GameService game) {
+        return new String(cells(game)).replace("-", "").length();
+    }
+
+    private static MoveJournal open(Path file, List<String> replayed) throws IOException {
+        return MoveJournal.open(file, MoveJournal.SyncPolicy.NONE, 0, new Recorder(replayed));
+    }
+
+    /**
+     * Writes each replayed record as a line of text.
+     */
+    private static final class Recorder implements MoveJournal.Replay {
+        private final List<String> out;
+
+        Recorder(List<String> out) {
+            this.out = out;
+        }
+
+        @Override
+        public void create(long gameId, int rows, int cols, int winLength) {
+            record("create " + gameId + " " + rows + "x" + cols + " k" + winLength);
+        }
+
+        @Override
+        public void move(long gameId, char player, int position) {
+            record("move " + gameId + " " + player + " " + position);
+        }
+
+        @Override
+        public void reset(long gameId) {
+            record("reset " + gameId);
+        }
+
+        @Override
+        public void aiPlayer(long gameId, char side) {
+            record("ai " + gameId + " " + side);
+        }
+
+        private void record(String line) {
+            if (out != null) {
+                out.add(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package client;
+
+import server.GameListener;
+import server.RequestHandler;
+import server.ServerDispatcher;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking variant of {@link GameServiceProxy}: every call returns at
+ * once with a future of its result.
+ *
+ * Calls are handed to an executor, so a local dispatcher runs them off the
+ * caller's thread and a network transport writes them there; callers such
+ * as the Swing event thread never wait on a game lock or a socket. Futures
+ * may complete on the executor, on a transport's reader thread or, if the
+ * call already finished, on the caller's, so UI code should hand results
+ * back itself, e.g. with {@code SwingUtilities.invokeLater}.
+ *
+ * Separate calls may run in any order; calls that depend on each other
+ * belong in one batch ({@link #submit(GameServiceProxy.Batch)}).
+ */
+public class AsyncGameServiceProxy {
+    private static final int MAKE_MOVE = ServerDispatcher.opcode("makeMove");
+    private static final int PLAY = ServerDispatcher.opcode("play");
+    private static final int GET_BOARD = ServerDispatcher.opcode("getBoard");
+    private static final int GET_STATUS = ServerDispatcher.opcode("getStatus");
+    private static final int GET_CURRENT_PLAYER = ServerDispatcher.opcode("getCurrentPlayer");
+    private static final int RESET_GAME = ServerDispatcher.opcode("resetGame");
+    private static final int GET_SNAPSHOT = ServerDispatcher.opcode("getSnapshot");
+    private static final int SET_AI_PLAYER = ServerDispatcher.opcode("setAiPlayer");
+    private static final int GET_SNAPSHOT_IF_CHANGED = ServerDispatcher.opcode("getSnapshotIfChanged");
+    private static final int AWAIT_CHANGE = ServerDispatcher.opcode("awaitChange");
+
+    // Grows with parked long polls on local dispatchers; idle threads expire
+    private static final ExecutorService DEFAULT_EXECUTOR;
+
+    static {
+        AtomicInteger count = new AtomicInteger();
+        DEFAULT_EXECUTOR = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "game-call-" + count.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private final ServiceReference serviceRef;
+    private final GameServiceProxy blocking;
+    private final Executor executor;
+
+    /**
+     * Runs calls on a shared pool of daemon threads.
+     * @param serviceRef the game to call
+     */
+    public AsyncGameServiceProxy(ServiceReference serviceRef) {
+        this(serviceRef, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * @param serviceRef the game to call
+     * @param executor runs each call, or for network transports, sends it
+     */
+    public AsyncGameServiceProxy(ServiceReference serviceRef, Executor executor) {
+        this.serviceRef = serviceRef;
+        this.blocking = new GameServiceProxy(serviceRef);
+        this.executor = executor;
+    }
+
+    /**
+     * @return a blocking proxy for the same game
+     */
+    public GameServiceProxy blocking() {
+        return blocking;
+    }
+
+    /**
+     * @see GameServiceProxy#makeMove
+     */
+    public CompletableFuture<Object> makeMove(char player, int position) {
+        return call(MAKE_MOVE, player, position);
+    }
+
+    /**
+     * @see GameServiceProxy#play
+     */
+    public CompletableFuture<Object> play(char player, int position) {
+        return call(PLAY, player, position);
+    }
+
+    public CompletableFuture<Object> getBoard() {
+        return call(GET_BOARD);
+    }
+
+    public CompletableFuture<Object> getStatus() {
+        return call(GET_STATUS);
+    }
+
+    public CompletableFuture<Object> getCurrentPlayer() {
+        return call(GET_CURRENT_PLAYER);
+    }
+
+    public CompletableFuture<Object> resetGame() {
+        return call(RESET_GAME);
+    }
+
+    /**
+     * @see GameServiceProxy#getSnapshot
+     */
+    public CompletableFuture<Object> getSnapshot() {
+        return call(GET_SNAPSHOT);
+    }
+
+    /**
+     * @see GameServiceProxy#setAiPlayer
+     */
+    public CompletableFuture<Object> setAiPlayer(char side) {
+        return call(SET_AI_PLAYER, side);
+    }
+
+    /**
+     * @see GameServiceProxy#getSnapshotIfChanged
+     */
+    public CompletableFuture<Object> getSnapshotIfChanged(long sinceVersion) {
+        return call(GET_SNAPSHOT_IF_CHANGED, sinceVersion);
+    }
+
+    /**
+     * Long poll; on a local dispatcher it holds an executor thread while it waits.
+     * @see GameServiceProxy#awaitChange
+     */
+    public CompletableFuture<Object> awaitChange(long sinceVersion, long timeoutMillis) {
+        return call(AWAIT_CHANGE, sinceVersion, timeoutMillis);
+    }
+
+    /**
+     * Starts a batch of calls on this game; send it with {@link #submit}.
+     * @return an empty batch
+     */
+    public GameServiceProxy.Batch batch() {
+        return blocking.batch();
+    }
+
+    /**
+     * Sends a batch built with {@link #batch()}.
+     * @param batch the queued calls
+     * @return future completed with one result per call, in queuing order
+     */
+    public CompletableFuture<Object[]> submit(GameServiceProxy.Batch batch) {
+        return async(batch::submit);
+    }
+
+    /**
+     * @see GameServiceProxy#subscribe
+     */
+    public boolean subscribe(GameListener listener) {
+        return blocking.subscribe(listener);
+    }
+
+    /**
+     * @see GameServiceProxy#unsubscribe
+     */
+    public void unsubscribe(GameListener listener) {
+        blocking.unsubscribe(listener);
+    }
+
+    private CompletableFuture<Object> call(int opcode, Object... params) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        return async(() -> dispatcher.submitRequest(serviceRef.getServiceName(), opcode, params));
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<CompletableFuture<T>> send) {
+        return CompletableFuture.supplyAsync(send, executor).thenCompose(result -> result);
+    }
+}
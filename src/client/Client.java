@@ -1,62 +1,110 @@
 package client;
 
 import registry.Register;
+import server.GameSnapshot;
+import server.MoveResult;
 import server.Server;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * ⚠️ NOTE: This class is NOT used in the final implementation.
- * 
- * This was an early command-line client for testing purposes.
- * The actual implementation uses GameUI.java and TwoGameUI.java
- * with graphical user interfaces.
- * 
- * Kept for reference and potential automated testing.
+ * Command-line player without a user interface.
+ *
+ * Run on its own it plays one game and prints every move. The
+ * {@link LoadGenerator} runs thousands of them quietly, each playing
+ * game after game until stopped, to measure the server under load.
+ *
+ * A client waits for its turn with a long poll ({@code awaitChange}), or
+ * in tight-loop mode by polling {@code getSnapshotIfChanged} without
+ * pausing, and thinks for a {@link ThinkTime} before each move.
  */
 public class Client implements Runnable {
-    private char player;
+    // Bounds how long a stopped client can stay parked in a long poll
+    private static final long AWAIT_MILLIS = 1000;
+
+    private final char player;
+    private final Register registry;
+    private final Server server;
+    private final String serviceName;
+    private final ThinkTime thinkTime;
+    private final boolean eventDriven;
+    private final boolean continuous;
+    private volatile boolean running = true;
     private GameServiceProxy gameService;
-    private Register registry;
-    private Server server;
-    private String serviceName;
 
+    /**
+     * Plays one game, printing each move.
+     * @param player 'X' or 'O'
+     * @param registry where the service is looked up first
+     * @param server asked for the service if the registry does not have it
+     * @param serviceName the game to play
+     */
     public Client(char player, Register registry, Server server, String serviceName) {
+        this(player, registry, server, serviceName, ThinkTime.NONE, true, false);
+    }
+
+    /**
+     * @param player 'X' or 'O'
+     * @param registry where the service is looked up first
+     * @param server asked for the service if the registry does not have it; may be null
+     * @param serviceName the game to play
+     * @param thinkTime pause before each move
+     * @param eventDriven wait for the opponent with long polls rather than a tight loop
+     * @param continuous quietly play game after game until {@link #stop()}; X resets each finished game
+     */
+    public Client(char player, Register registry, Server server, String serviceName,
+                  ThinkTime thinkTime, boolean eventDriven, boolean continuous) {
         this.player = player;
         this.registry = registry;
         this.server = server;
         this.serviceName = serviceName;
+        this.thinkTime = thinkTime;
+        this.eventDriven = eventDriven;
+        this.continuous = continuous;
+    }
+
+    /**
+     * Asks the client to stop; it finishes within about a second.
+     */
+    public void stop() {
+        running = false;
     }
 
     @Override
     public void run() {
         try {
             // Step 1: Service Discovery
-            System.out.println("[Client " + player + "] Starting service discovery...");
-            
+            log("Starting service discovery...");
+
             // Try to lookup service in registry
             ServiceReference ref = registry.lookup(serviceName);
-            
-            if (ref == null) {
+
+            if (ref == null && server != null) {
                 // Service not in registry, request from server
-                System.out.println("[Client " + player + "] Service not in registry. Requesting from server...");
+                log("Service not in registry. Requesting from server...");
                 ref = server.requestService(serviceName);
-                
+
                 if (ref != null) {
                     // Cache the service reference in registry
                     registry.rebind(serviceName, ref);
-                    System.out.println("[Client " + player + "] Service reference cached in registry.");
+                    log("Service reference cached in registry.");
                 }
-            } else {
-                System.out.println("[Client " + player + "] Service found in registry.");
+            } else if (ref != null) {
+                log("Service found in registry.");
+            }
+            if (ref == null) {
+                System.err.println("[Client " + player + "] Service '" + serviceName + "' not found.");
+                return;
             }
 
             // Step 2: Create proxy
             gameService = new GameServiceProxy(ref);
-            System.out.println("[Client " + player + "] Connected to game service via proxy.");
+            log("Connected to game service via proxy.");
 
             // Step 3: Play the game
             playGame();
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("[Client " + player + "] Error: " + e.getMessage());
             e.printStackTrace();
@@ -67,57 +115,81 @@ public class Client implements Runnable {
      * Main game loop for the client.
      */
     private void playGame() throws InterruptedException {
-        Random random = new Random();
-        
-        while (true) {
-            // Check game status
-            String status = (String) gameService.getStatus();
-            
-            if (!status.equals("IN_PROGRESS")) {
-                System.out.println("\n[Client " + player + "] Game Over! " + status);
-                displayBoard();
-                break;
+        GameSnapshot snapshot = snapshot(gameService.getSnapshot());
+
+        while (running) {
+            if (!snapshot.isInProgress()) {
+                if (!continuous) {
+                    log("Game Over! " + snapshot.getStatus());
+                    displayBoard(snapshot);
+                    break;
+                }
+                // X starts the next game; O waits to see it
+                if (player == 'X') {
+                    gameService.resetGame();
+                }
+                snapshot = next(snapshot);
+                continue;
             }
 
-            // Check if it's this player's turn
-            char currentPlayer = (Character) gameService.getCurrentPlayer();
-            
-            if (currentPlayer == player) {
-                // Make a move
-                int position = findAvailablePosition();
-                
+            if (snapshot.getCurrentPlayer() == player) {
+                thinkTime.pause();
+                int position = findAvailablePosition(snapshot);
                 if (position == -1) {
-                    System.out.println("[Client " + player + "] No available positions!");
+                    log("No available positions!");
                     break;
                 }
 
-                System.out.println("\n[Client " + player + "] Making move at position " + position);
-                String result = (String) gameService.makeMove(player, position);
-                System.out.println("[Client " + player + "] Result: " + result);
-                
-                displayBoard();
-                
-                // Small delay for readability
-                Thread.sleep(500);
-            } else {
-                // Wait for opponent's turn
-                Thread.sleep(300);
+                Object result = gameService.play(player, position);
+                if (!continuous) {
+                    log("Making move at position " + position);
+                    log("Result: " + (result instanceof Long
+                        ? MoveResult.describe((Long) result, snapshot.getCellCount()) : result));
+                }
+            }
+            // Our own move shows up at once; otherwise wait for the opponent's
+            snapshot = next(snapshot);
+            if (!continuous && snapshot.getCurrentPlayer() != player && snapshot.isInProgress()) {
+                displayBoard(snapshot);
             }
         }
     }
 
+    /**
+     * Waits for the game to move past a snapshot.
+     * @return the newer snapshot, or the same one if nothing changed in time
+     */
+    private GameSnapshot next(GameSnapshot seen) {
+        Object changed;
+        if (eventDriven) {
+            changed = gameService.awaitChange(seen.getVersion(), AWAIT_MILLIS);
+        } else {
+            changed = gameService.getSnapshotIfChanged(seen.getVersion());
+            if (changed == null) {
+                Thread.onSpinWait();
+            }
+        }
+        return changed == null ? seen : snapshot(changed);
+    }
+
+    private GameSnapshot snapshot(Object result) {
+        if (result instanceof GameSnapshot) {
+            return (GameSnapshot) result;
+        }
+        throw new IllegalStateException(String.valueOf(result));
+    }
+
     /**
      * Finds an available position on the board.
      * @return position index or -1 if board is full
      */
-    private int findAvailablePosition() {
-        char[] board = (char[]) gameService.getBoard();
-        Random random = new Random();
-        
+    private int findAvailablePosition(GameSnapshot snapshot) {
+        char[] board = snapshot.getBoard();
+
         // Collect available positions
-        int[] available = new int[9];
+        int[] available = new int[board.length];
         int count = 0;
-        
+
         for (int i = 0; i < board.length; i++) {
             if (board[i] == '-') {
                 available[count++] = i;
@@ -129,15 +201,19 @@ public class Client implements Runnable {
         }
 
         // Return random available position
-        return available[random.nextInt(count)];
+        return available[ThreadLocalRandom.current().nextInt(count)];
     }
 
     /**
-     * Displays the current board state.
+     * Displays the board state.
      */
-    private void displayBoard() {
-        char[] board = (char[]) gameService.getBoard();
-        
+    private void displayBoard(GameSnapshot snapshot) {
+        char[] board = snapshot.getBoard();
+        if (board.length != 9) {
+            System.out.println("\n[Client " + player + "] " + snapshot);
+            return;
+        }
+
         System.out.println("\n[Client " + player + "] Current Board:");
         System.out.println("  " + board[0] + " | " + board[1] + " | " + board[2]);
         System.out.println(" -----------");
@@ -146,4 +222,10 @@ public class Client implements Runnable {
         System.out.println("  " + board[6] + " | " + board[7] + " | " + board[8]);
         System.out.println();
     }
-}
\ No newline at end of file
+
+    private void log(String message) {
+        if (!continuous) {
+            System.out.println("[Client " + player + "] " + message);
+        }
+    }
+}
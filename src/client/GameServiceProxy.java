@@ -1,12 +1,31 @@
 package client;
 
+import server.GameListener;
+import server.GameLobby;
+import server.RequestHandler;
 import server.ServerDispatcher;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Client-side proxy for the Tic-Tac-Toe game service.
  * Acts as the RMI stub, providing transparent remote method calls.
+ * Several calls can be sent as one request with {@link #batch()}.
  */
 public class GameServiceProxy {
+    private static final int MAKE_MOVE = ServerDispatcher.opcode("makeMove");
+    private static final int PLAY = ServerDispatcher.opcode("play");
+    private static final int GET_BOARD = ServerDispatcher.opcode("getBoard");
+    private static final int GET_STATUS = ServerDispatcher.opcode("getStatus");
+    private static final int GET_CURRENT_PLAYER = ServerDispatcher.opcode("getCurrentPlayer");
+    private static final int RESET_GAME = ServerDispatcher.opcode("resetGame");
+    private static final int GET_SNAPSHOT = ServerDispatcher.opcode("getSnapshot");
+    private static final int SET_AI_PLAYER = ServerDispatcher.opcode("setAiPlayer");
+    private static final int GET_SNAPSHOT_IF_CHANGED = ServerDispatcher.opcode("getSnapshotIfChanged");
+    private static final int AWAIT_CHANGE = ServerDispatcher.opcode("awaitChange");
+    private static final int CREATE_GAME = ServerDispatcher.opcode("createGame");
+
     private ServiceReference serviceRef;
 
     public GameServiceProxy(ServiceReference serviceRef) {
@@ -16,14 +35,30 @@ public class GameServiceProxy {
     /**
      * Makes a move in the game.
      * @param player the player making the move
-     * @param position the board position (0-8)
+     * @param position the board position (0 to rows * cols - 1)
      * @return result message
      */
     public Object makeMove(char player, int position) {
-        ServerDispatcher dispatcher = serviceRef.getDispatcher();
+        RequestHandler dispatcher = serviceRef.getDispatcher();
         return dispatcher.handleRequest(
             serviceRef.getServiceName(),
-            "makeMove",
+            MAKE_MOVE,
+            player,
+            position
+        );
+    }
+
+    /**
+     * Makes a move and gets a typed result instead of a message.
+     * @param player the player making the move
+     * @param position the board position (0 to rows * cols - 1)
+     * @return Long move word; read it with {@link server.MoveResult}
+     */
+    public Object play(char player, int position) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        return dispatcher.handleRequest(
+            serviceRef.getServiceName(),
+            PLAY,
             player,
             position
         );
@@ -34,10 +69,10 @@ public class GameServiceProxy {
      * @return board array
      */
     public Object getBoard() {
-        ServerDispatcher dispatcher = serviceRef.getDispatcher();
+        RequestHandler dispatcher = serviceRef.getDispatcher();
         return dispatcher.handleRequest(
             serviceRef.getServiceName(),
-            "getBoard"
+            GET_BOARD
         );
     }
 
@@ -46,10 +81,10 @@ public class GameServiceProxy {
      * @return status string
      */
     public Object getStatus() {
-        ServerDispatcher dispatcher = serviceRef.getDispatcher();
+        RequestHandler dispatcher = serviceRef.getDispatcher();
         return dispatcher.handleRequest(
             serviceRef.getServiceName(),
-            "getStatus"
+            GET_STATUS
         );
     }
 
@@ -58,10 +93,10 @@ public class GameServiceProxy {
      * @return current player character
      */
     public Object getCurrentPlayer() {
-        ServerDispatcher dispatcher = serviceRef.getDispatcher();
+        RequestHandler dispatcher = serviceRef.getDispatcher();
         return dispatcher.handleRequest(
             serviceRef.getServiceName(),
-            "getCurrentPlayer"
+            GET_CURRENT_PLAYER
         );
     }
 
@@ -70,10 +105,208 @@ public class GameServiceProxy {
      * @return result message
      */
     public Object resetGame() {
-        ServerDispatcher dispatcher = serviceRef.getDispatcher();
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        return dispatcher.handleRequest(
+            serviceRef.getServiceName(),
+            RESET_GAME
+        );
+    }
+
+    /**
+     * Gets board, current player, status and version in one round trip.
+     * @return GameSnapshot
+     */
+    public Object getSnapshot() {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
         return dispatcher.handleRequest(
             serviceRef.getServiceName(),
-            "resetGame"
+            GET_SNAPSHOT
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Lets the server's perfect-play AI move for one side.
+     * @param side 'X' or 'O', or '-' to turn the AI off
+     * @return result message
+     */
+    public Object setAiPlayer(char side) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        return dispatcher.handleRequest(
+            serviceRef.getServiceName(),
+            SET_AI_PLAYER,
+            side
+        );
+    }
+
+    /**
+     * Gets a snapshot only if the game changed since a version the caller has seen.
+     * @param sinceVersion version of the last rendered snapshot
+     * @return GameSnapshot, or null if not modified
+     */
+    public Object getSnapshotIfChanged(long sinceVersion) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        return dispatcher.handleRequest(
+            serviceRef.getServiceName(),
+            GET_SNAPSHOT_IF_CHANGED,
+            sinceVersion
+        );
+    }
+
+    /**
+     * Waits until the game changes since a version the caller has seen (long poll).
+     * @param sinceVersion version of the last rendered snapshot
+     * @param timeoutMillis how long to wait; the server caps this
+     * @return GameSnapshot, or null if nothing changed in time
+     */
+    public Object awaitChange(long sinceVersion, long timeoutMillis) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        return dispatcher.handleRequest(
+            serviceRef.getServiceName(),
+            AWAIT_CHANGE,
+            sinceVersion,
+            timeoutMillis
+        );
+    }
+
+    /**
+     * Subscribes to pushed game events.
+     * Only in-process dispatchers can push; remote callers should keep polling.
+     * @param listener the listener
+     * @return true if events will be delivered
+     */
+    public boolean subscribe(GameListener listener) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        if (dispatcher instanceof ServerDispatcher) {
+            return ((ServerDispatcher) dispatcher).subscribe(serviceRef.getServiceName(), listener);
+        }
+        return false;
+    }
+
+    /**
+     * Stops pushed game events for a listener.
+     * @param listener the listener passed to {@link #subscribe}
+     */
+    public void unsubscribe(GameListener listener) {
+        RequestHandler dispatcher = serviceRef.getDispatcher();
+        if (dispatcher instanceof ServerDispatcher) {
+            ((ServerDispatcher) dispatcher).unsubscribe(serviceRef.getServiceName(), listener);
+        }
+    }
+
+    /**
+     * Starts a batch of calls on this game, sent together as one request.
+     * @return an empty batch
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Calls queued to run in order on the server in one round trip.
+     * Each queuing method returns the batch, so calls can be chained:
+     * {@code proxy.batch().play('X', 4).getSnapshot().execute()}.
+     * Results come back in queuing order, each as its single call would return it.
+     * The calls are not atomic: other players' calls may run in between.
+     */
+    public final class Batch {
+        private int[] opcodes = new int[4];
+        private Object[][] params = new Object[4][];
+        private int size;
+
+        private Batch() {
+        }
+
+        public Batch makeMove(char player, int position) {
+            return add(MAKE_MOVE, player, position);
+        }
+
+        public Batch play(char player, int position) {
+            return add(PLAY, player, position);
+        }
+
+        public Batch getBoard() {
+            return add(GET_BOARD);
+        }
+
+        public Batch getStatus() {
+            return add(GET_STATUS);
+        }
+
+        public Batch getCurrentPlayer() {
+            return add(GET_CURRENT_PLAYER);
+        }
+
+        public Batch resetGame() {
+            return add(RESET_GAME);
+        }
+
+        public Batch getSnapshot() {
+            return add(GET_SNAPSHOT);
+        }
+
+        public Batch setAiPlayer(char side) {
+            return add(SET_AI_PLAYER, side);
+        }
+
+        public Batch getSnapshotIfChanged(long sinceVersion) {
+            return add(GET_SNAPSHOT_IF_CHANGED, sinceVersion);
+        }
+
+        private Batch add(int opcode, Object... callParams) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                params = Arrays.copyOf(params, size * 2);
+            }
+            opcodes[size] = opcode;
+            params[size] = callParams;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return number of queued calls
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Sends the queued calls and blocks until all results arrive.
+         * @return one result per call, in queuing order
+         */
+        public Object[] execute() {
+            RequestHandler dispatcher = serviceRef.getDispatcher();
+            return dispatcher.handleBatch(serviceRef.getServiceName(),
+                Arrays.copyOf(opcodes, size), Arrays.copyOf(params, size));
+        }
+
+        /**
+         * Sends the queued calls without waiting for earlier requests to be
+         * answered. Separate batches may run in any order on the server.
+         * @return future completed with one result per call, in queuing order
+         */
+        public CompletableFuture<Object[]> submit() {
+            RequestHandler dispatcher = serviceRef.getDispatcher();
+            return dispatcher.submitBatch(serviceRef.getServiceName(),
+                Arrays.copyOf(opcodes, size), Arrays.copyOf(params, size));
+        }
+    }
+
+    /**
+     * Asks the server's game lobby for a new game on an m x n board.
+     * @param dispatcher local dispatcher or network transport
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @return reference to the new game
+     * @throws IllegalArgumentException if the server rejects the sizes
+     */
+    public static ServiceReference createGame(RequestHandler dispatcher, int rows, int cols, int winLength) {
+        Object result = dispatcher.handleRequest(GameLobby.SERVICE_NAME, CREATE_GAME, rows, cols, winLength);
+        String serviceName = String.valueOf(result);
+        if (serviceName.startsWith("Error:")) {
+            throw new IllegalArgumentException(serviceName);
+        }
+        return new ServiceReference(serviceName, dispatcher);
+    }
+}
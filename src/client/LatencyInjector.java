@@ -0,0 +1,104 @@
+package client;
+
+import server.RequestHandler;
+import server.ServerDispatcher;
+
+import java.awt.EventQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a dispatcher or transport and delays every call by a fixed time,
+ * to try clients against a slow network without one.
+ * Blocking calls made on the Swing event thread are counted and logged,
+ * since with real latency each of them freezes the UI.
+ *
+ * Run a UI with {@code -Dgame.latencyMillis=300} to wrap its game
+ * (see {@link #wrapIfConfigured}).
+ */
+public class LatencyInjector implements RequestHandler {
+    public static final String LATENCY_PROPERTY = "game.latencyMillis";
+
+    private final RequestHandler delegate;
+    private final long latencyMillis;
+    private final Executor delayed;
+    private final LongAdder blockingEdtCalls = new LongAdder();
+
+    /**
+     * @param delegate the handler that serves calls after the delay
+     * @param latencyMillis delay added to each call
+     */
+    public LatencyInjector(RequestHandler delegate, long latencyMillis) {
+        this.delegate = delegate;
+        this.latencyMillis = latencyMillis;
+        this.delayed = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wraps a reference in an injector if the {@value #LATENCY_PROPERTY}
+     * system property is set to a positive number of milliseconds.
+     * @param ref the reference to wrap
+     * @return a reference to the same service, delayed, or ref itself
+     */
+    public static ServiceReference wrapIfConfigured(ServiceReference ref) {
+        long millis = Long.getLong(LATENCY_PROPERTY, 0);
+        if (millis <= 0) {
+            return ref;
+        }
+        System.out.println("[Latency] Delaying calls to " + ref.getServiceName() + " by " + millis + " ms.");
+        return new ServiceReference(ref.getServiceName(), new LatencyInjector(ref.getDispatcher(), millis));
+    }
+
+    @Override
+    public Object handleRequest(String serviceName, int opcode, Object... params) {
+        checkThread(ServerDispatcher.methodName(opcode));
+        sleep();
+        return delegate.handleRequest(serviceName, opcode, params);
+    }
+
+    @Override
+    public Object[] handleBatch(String serviceName, int[] opcodes, Object[][] params) {
+        checkThread("batch");
+        sleep();
+        return delegate.handleBatch(serviceName, opcodes, params);
+    }
+
+    /**
+     * Sends the call once the delay has passed, without blocking the caller.
+     */
+    @Override
+    public CompletableFuture<Object> submitRequest(String serviceName, int opcode, Object... params) {
+        return CompletableFuture.supplyAsync(() -> delegate.submitRequest(serviceName, opcode, params), delayed)
+            .thenCompose(result -> result);
+    }
+
+    @Override
+    public CompletableFuture<Object[]> submitBatch(String serviceName, int[] opcodes, Object[][] params) {
+        return CompletableFuture.supplyAsync(() -> delegate.submitBatch(serviceName, opcodes, params), delayed)
+            .thenCompose(result -> result);
+    }
+
+    /**
+     * @return blocking calls made on the Swing event thread so far
+     */
+    public long getBlockingEdtCalls() {
+        return blockingEdtCalls.sum();
+    }
+
+    private void checkThread(String methodName) {
+        if (EventQueue.isDispatchThread()) {
+            blockingEdtCalls.increment();
+            System.err.println("[Latency] Blocking call on the event dispatch thread: " + methodName);
+        }
+    }
+
+    private void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
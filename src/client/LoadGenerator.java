@@ -0,0 +1,277 @@
+package client;
+
+import registry.Register;
+import server.LatencyHistogram;
+import server.MoveResult;
+import server.RequestExecutors;
+import server.RequestHandler;
+import server.Server;
+import server.ServerDispatcher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load test: runs pairs of {@link Client} bots against many games
+ * at once and reports throughput and latency per operation.
+ *
+ * Each game is created through the lobby and bound in a {@link Register};
+ * bots discover it there like any client and play game after game. Every
+ * call is timed into a {@link LatencyHistogram}, and after a warm-up the
+ * report gives calls per second and p50/p99/p99.9 latency per method.
+ * Long-poll latencies ({@code awaitChange}) include the time spent waiting
+ * for the opponent.
+ *
+ * Usage: {@code java client.LoadGenerator [--pairs N] [--games M]
+ * [--think none|fixed:MS|uniform:MIN-MAX|exp:MEAN] [--mode events|loop]
+ * [--board RxCxK] [--warmup S] [--duration S] [--connect HOST:PORT]
+ * [--connections K]}. Without {@code --connect} the server runs in this
+ * process and its console logging is discarded during the run.
+ */
+public class LoadGenerator {
+    private static final int PLAY = ServerDispatcher.opcode("play");
+
+    private final Options options;
+    private final Server server;
+    private final RequestHandler[] targets;
+    // Captured here, so the report survives main silencing the console for the run
+    private final PrintStream out = System.out;
+    private final Map<Integer, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejectedMoves = new LongAdder();
+
+    /**
+     * Load test settings, read from the command line by {@link #parse}.
+     */
+    public static final class Options {
+        public int pairs = 100;
+        public int games = 100;
+        public String think = "none";
+        public boolean eventDriven = true;
+        public int rows = 3;
+        public int cols = 3;
+        public int winLength = 3;
+        public long warmupSeconds = 5;
+        public long durationSeconds = 30;
+        public String connect;
+        public int connections = 1;
+
+        /**
+         * @param args command-line arguments (see {@link LoadGenerator})
+         * @return the settings
+         * @throws IllegalArgumentException if an argument is unknown or malformed
+         */
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String flag = args[i];
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + flag);
+                }
+                String value = args[++i];
+                switch (flag) {
+                    case "--pairs": options.pairs = Integer.parseInt(value); break;
+                    case "--games": options.games = Integer.parseInt(value); break;
+                    case "--think": ThinkTime.parse(value); options.think = value; break;
+                    case "--mode": options.eventDriven = parseMode(value); break;
+                    case "--warmup": options.warmupSeconds = Long.parseLong(value); break;
+                    case "--duration": options.durationSeconds = Long.parseLong(value); break;
+                    case "--connect": options.connect = value; break;
+                    case "--connections": options.connections = Integer.parseInt(value); break;
+                    case "--board":
+                        String[] sizes = value.split("x");
+                        if (sizes.length != 3) {
+                            throw new IllegalArgumentException("Board must be RxCxK, e.g. 3x3x3");
+                        }
+                        options.rows = Integer.parseInt(sizes[0]);
+                        options.cols = Integer.parseInt(sizes[1]);
+                        options.winLength = Integer.parseInt(sizes[2]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + flag);
+                }
+            }
+            if (options.pairs < 1 || options.games < 1 || options.connections < 1) {
+                throw new IllegalArgumentException("Pairs, games and connections must be positive");
+            }
+            return options;
+        }
+
+        private static boolean parseMode(String mode) {
+            if (!mode.equals("events") && !mode.equals("loop")) {
+                throw new IllegalArgumentException("Mode must be events or loop");
+            }
+            return mode.equals("events");
+        }
+    }
+
+    /**
+     * @param options what to run
+     * @param server asked for services the registry misses; null when remote
+     * @param targets dispatchers or transports; games are spread over them
+     */
+    public LoadGenerator(Options options, Server server, RequestHandler... targets) {
+        this.options = options;
+        this.server = server;
+        this.targets = targets;
+    }
+
+    /**
+     * Creates the games, runs the bots through warm-up and the measured
+     * period, stops them and prints the report.
+     * @throws InterruptedException if interrupted while the bots run
+     */
+    public void run() throws InterruptedException {
+        Register registry = new Register(0, Math.max(Register.DEFAULT_MAX_ENTRIES, options.games));
+        String[] gameNames = new String[options.games];
+        for (int g = 0; g < options.games; g++) {
+            RequestHandler target = targets[g % targets.length];
+            String name = GameServiceProxy.createGame(target, options.rows, options.cols, options.winLength)
+                .getServiceName();
+            registry.rebind(name, new ServiceReference(name, new Recorder(target)));
+            gameNames[g] = name;
+        }
+
+        ThinkTime thinkTime = ThinkTime.parse(options.think);
+        List<Client> bots = new ArrayList<>(options.pairs * 2);
+        for (int p = 0; p < options.pairs; p++) {
+            String game = gameNames[p % options.games];
+            bots.add(new Client('X', registry, server, game, thinkTime, options.eventDriven, true));
+            bots.add(new Client('O', registry, server, game, thinkTime, options.eventDriven, true));
+        }
+
+        ExecutorService executor = RequestExecutors.newRequestExecutor("bot-", bots.size());
+        bots.forEach(executor::execute);
+
+        TimeUnit.SECONDS.sleep(options.warmupSeconds);
+        latencies.values().forEach(LatencyHistogram::reset);
+        errors.reset();
+        rejectedMoves.reset();
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(options.durationSeconds);
+        long elapsed = System.nanoTime() - start;
+        Map<String, LatencyHistogram> measured = new TreeMap<>();
+        latencies.forEach((opcode, histogram) -> {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.add(histogram);
+            measured.put(ServerDispatcher.methodName(opcode), copy);
+        });
+        long errorCount = errors.sum();
+        long rejectedCount = rejectedMoves.sum();
+
+        bots.forEach(Client::stop);
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        report(measured, elapsed, errorCount, rejectedCount);
+    }
+
+    private void report(Map<String, LatencyHistogram> measured, long elapsedNanos, long errorCount, long rejectedCount) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("[Load] %d pairs on %d %dx%d games, think %s, %s, %s; %.1f s measured after %d s warm-up%n",
+            options.pairs, options.games, options.rows, options.cols, options.think,
+            options.eventDriven ? "long polls" : "tight loop",
+            RequestExecutors.virtualThreadsAvailable() ? "virtual threads" : "platform threads",
+            seconds, options.warmupSeconds);
+        out.printf("%-22s %10s %10s %10s %10s %10s %10s %10s%n",
+            "operation", "count", "calls/s", "mean us", "p50 us", "p99 us", "p99.9 us", "max us");
+
+        long calls = 0;
+        for (Map.Entry<String, LatencyHistogram> entry : measured.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            if (h.getCount() == 0) {
+                continue;
+            }
+            calls += h.getCount();
+            out.printf("%-22s %10d %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                entry.getKey(), h.getCount(), h.getCount() / seconds, h.getMean() / 1e3,
+                h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(99) / 1e3,
+                h.getValueAtPercentile(99.9) / 1e3, h.getMax() / 1e3);
+        }
+        LatencyHistogram resets = measured.get("resetGame");
+        out.printf("[Load] %.0f calls/s, %.1f games/s; %d errors, %d rejected moves%n",
+            calls / seconds, resets == null ? 0 : resets.getCount() / seconds, errorCount, rejectedCount);
+    }
+
+    /**
+     * Times every call through one target.
+     */
+    private final class Recorder implements RequestHandler {
+        private final RequestHandler delegate;
+
+        Recorder(RequestHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object handleRequest(String serviceName, int opcode, Object... params) {
+            LatencyHistogram histogram = latencies.computeIfAbsent(opcode, op -> new LatencyHistogram());
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = delegate.handleRequest(serviceName, opcode, params);
+            } catch (RuntimeException e) {
+                errors.increment();
+                throw e;
+            } finally {
+                histogram.recordSince(start);
+            }
+            if (result instanceof String && ((String) result).startsWith("Error:")) {
+                errors.increment();
+            } else if (opcode == PLAY && result instanceof Long && !MoveResult.of((Long) result).isAccepted()) {
+                rejectedMoves.increment();
+            }
+            return result;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Load] " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (options.connect != null) {
+            int colon = options.connect.lastIndexOf(':');
+            String host = options.connect.substring(0, colon);
+            int port = Integer.parseInt(options.connect.substring(colon + 1));
+            TcpTransport[] transports = new TcpTransport[options.connections];
+            for (int i = 0; i < transports.length; i++) {
+                transports[i] = TcpTransport.connect(host, port);
+            }
+            try {
+                new LoadGenerator(options, null, transports).run();
+            } finally {
+                for (TcpTransport transport : transports) {
+                    transport.close();
+                }
+            }
+            return;
+        }
+
+        Server server = new Server();
+        LoadGenerator generator = new LoadGenerator(options, server, server.getDispatcher());
+        // Per-move console logging would drown the report; the bots still pay for the calls
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            generator.run();
+        } finally {
+            System.setOut(console);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package client;
+
+import registry.Register;
+import registry.RegistryListener;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-local cache of {@link ServiceReference}s in front of a {@link Register}.
+ * A hit costs one map read and never reaches the registry. Entries hold
+ * a short lease of their own, and the registry invalidates them as soon
+ * as their binding is rebound, unbound, expired or evicted, so a cached
+ * reference is never older than the registry's.
+ */
+public class NearCache implements RegistryListener, Closeable {
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final Register registry;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load that raced one does not keep its result
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final class Entry {
+        final ServiceReference ref;
+        final long expiresAt;
+
+        Entry(ServiceReference ref, long expiresAt) {
+            this.ref = ref;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Caches for {@link #DEFAULT_TTL_MILLIS}, up to {@link #DEFAULT_MAX_ENTRIES} references.
+     * @param registry the registry to load from and listen to
+     */
+    public NearCache(Register registry) {
+        this(registry, DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param registry the registry to load from and listen to
+     * @param ttlMillis how long a reference is used before it is loaded again
+     * @param maxEntries most references kept at once
+     */
+    public NearCache(Register registry, long ttlMillis, int maxEntries) {
+        if (ttlMillis <= 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("TTL and bound must be positive");
+        }
+        this.registry = registry;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        registry.addRegistryListener(this);
+    }
+
+    /**
+     * Looks a service up in this cache only.
+     * @param serviceName the name of the service
+     * @return the cached reference, or null if absent or its lease has run out
+     */
+    public ServiceReference get(String serviceName) {
+        Entry entry = entries.get(serviceName);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(serviceName, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.ref;
+    }
+
+    /**
+     * Looks a service up here, then in the registry, caching what the registry returns.
+     * @param serviceName the name of the service
+     * @return ServiceReference if found, null otherwise
+     */
+    public ServiceReference lookup(String serviceName) {
+        ServiceReference ref = get(serviceName);
+        if (ref != null) {
+            return ref;
+        }
+
+        long stamp = invalidations.get();
+        ref = registry.lookup(serviceName);
+        if (ref != null) {
+            if (entries.size() >= maxEntries) {
+                evict();
+            }
+            Entry entry = new Entry(ref, System.nanoTime() + ttlNanos);
+            entries.put(serviceName, entry);
+            // The binding changed while we loaded it; keep no copy of the old one
+            if (invalidations.get() != stamp) {
+                entries.remove(serviceName, entry);
+            }
+        }
+        return ref;
+    }
+
+    @Override
+    public void onInvalidate(String serviceName) {
+        invalidations.incrementAndGet();
+        if (serviceName == null) {
+            entries.clear();
+        } else {
+            entries.remove(serviceName);
+        }
+    }
+
+    /**
+     * Makes room: drops expired entries, or everything if none had expired.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Stops listening to the registry and drops every entry.
+     */
+    @Override
+    public void close() {
+        registry.removeRegistryListener(this);
+        entries.clear();
+    }
+}
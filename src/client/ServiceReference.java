@@ -1,15 +1,15 @@
 package client;
 
-import server.ServerDispatcher;
+import server.RequestHandler;
 
 
  // Represents a reference to a remote service.
  // Acts as a handle for clients to access services through the dispatcher.
 public class ServiceReference {
-    private String serviceName;
-    private ServerDispatcher dispatcher;
+    private final String serviceName;
+    private final RequestHandler dispatcher;
 
-    public ServiceReference(String serviceName, ServerDispatcher dispatcher) {
+    public ServiceReference(String serviceName, RequestHandler dispatcher) {
         this.serviceName = serviceName;
         this.dispatcher = dispatcher;
     }
@@ -18,7 +18,10 @@ public class ServiceReference {
         return serviceName;
     }
 
-    public ServerDispatcher getDispatcher() {
+    /**
+     * @return the local dispatcher, or a network transport to a remote one
+     */
+    public RequestHandler getDispatcher() {
         return dispatcher;
     }
 }
\ No newline at end of file
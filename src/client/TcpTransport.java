@@ -0,0 +1,318 @@
+package client;
+
+import server.BufferPool;
+import server.GameProtocol;
+import server.GameSessionManager;
+import server.RequestHandler;
+import server.ServerDispatcher;
+import server.WireCodec;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client side of the TCP transport served by {@link server.NioServer}.
+ * Plugs into a {@link ServiceReference} in place of a local dispatcher,
+ * so {@link GameServiceProxy} works unchanged against a remote server.
+ * Calls on hosted games use fixed-size {@link GameProtocol} frames;
+ * everything else, including games on boards larger than 3x3, uses the
+ * general {@link WireCodec} encoding.
+ *
+ * Calls are pipelined: each is written as soon as it is made, and a reader
+ * thread matches replies to calls by request id. Any number of calls can be
+ * in flight, so a long-poll {@code awaitChange} no longer holds the
+ * connection. The server may run pipelined calls in any order; calls that
+ * depend on each other belong in one batch ({@link #submitBatch}).
+ * Futures complete on the reader thread, so callbacks on them must not
+ * block on this transport.
+ */
+public class TcpTransport implements RequestHandler, Closeable {
+    private static final BufferPool FRAME_POOL = new BufferPool(GameProtocol.BUFFER_BYTES, 256);
+    private static final Object NOT_COMPACT = new Object();
+    private static final AtomicInteger READER_COUNT = new AtomicInteger();
+
+    private final SocketChannel channel;
+    private final Object writeLock = new Object();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    // Calls written and not yet answered, by request id
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    // Games the server reported as too large for compact frames
+    private final Set<String> generalOnlyGames = ConcurrentHashMap.newKeySet();
+    private final Thread reader;
+    private volatile IOException failure;
+
+    private TcpTransport(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new Thread(this::readLoop, "tcp-reader-" + READER_COUNT.getAndIncrement());
+        this.reader.setDaemon(true);
+    }
+
+    /**
+     * Opens a connection to a remote server.
+     * @param host server host name
+     * @param port server port
+     * @return connected transport
+     * @throws IOException if the connection fails
+     */
+    public static TcpTransport connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        TcpTransport transport = new TcpTransport(channel);
+        transport.reader.start();
+        return transport;
+    }
+
+    /**
+     * A call waiting for its reply.
+     */
+    private static final class Pending {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final int op; // compact game op, or 0 for a general frame
+        final String serviceName;
+
+        Pending(int op, String serviceName) {
+            this.op = op;
+            this.serviceName = serviceName;
+        }
+    }
+
+    /**
+     * Sends a call and blocks until its result arrives.
+     * @throws UncheckedIOException if the connection fails
+     */
+    @Override
+    public Object handleRequest(String serviceName, int opcode, Object... params) {
+        return await(submitRequest(serviceName, opcode, params));
+    }
+
+    /**
+     * Sends a call without waiting for earlier calls to be answered.
+     * @return future completed with the result, or with an UncheckedIOException
+     *         if the connection fails
+     */
+    @Override
+    public CompletableFuture<Object> submitRequest(String serviceName, int opcode, Object... params) {
+        int op = GameProtocol.toGameOp(opcode);
+        if (op > 0 && hasCompactParams(op, params) && !generalOnlyGames.contains(serviceName)) {
+            long gameId = GameSessionManager.parseGameId(serviceName);
+            if (gameId > 0) {
+                return sendGame(serviceName, gameId, op, params).thenCompose(result -> {
+                    if (result != NOT_COMPACT) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    generalOnlyGames.add(serviceName);
+                    return sendCall(serviceName, opcode, params);
+                });
+            }
+        }
+        return sendCall(serviceName, opcode, params);
+    }
+
+    /**
+     * Sends a batch in one frame and blocks until all its results arrive.
+     * @throws UncheckedIOException if the connection fails
+     */
+    @Override
+    public Object[] handleBatch(String serviceName, int[] opcodes, Object[][] params) {
+        return await(submitBatch(serviceName, opcodes, params));
+    }
+
+    /**
+     * Sends a batch in one frame; the server runs its calls in order.
+     * @return future completed with one result per call
+     */
+    @Override
+    public CompletableFuture<Object[]> submitBatch(String serviceName, int[] opcodes, Object[][] params) {
+        String[] methodNames = new String[opcodes.length];
+        for (int i = 0; i < opcodes.length; i++) {
+            methodNames[i] = ServerDispatcher.methodName(opcodes[i]);
+        }
+        int requestId = nextRequestId.getAndIncrement();
+        ByteBuffer frame = WireCodec.encodeBatch(requestId, serviceName, methodNames, params);
+        return send(requestId, new Pending(0, serviceName), frame).thenApply(result -> {
+            if (!(result instanceof Object[])) {
+                // The whole batch failed on the server
+                throw new IllegalStateException(String.valueOf(result));
+            }
+            return (Object[]) result;
+        });
+    }
+
+    private CompletableFuture<Object> sendCall(String serviceName, int opcode, Object[] params) {
+        int requestId = nextRequestId.getAndIncrement();
+        ByteBuffer frame = WireCodec.encodeCall(requestId, serviceName, ServerDispatcher.methodName(opcode), params);
+        return send(requestId, new Pending(0, serviceName), frame);
+    }
+
+    /**
+     * Sends one fixed-size game frame from a pooled buffer.
+     * The reply completes the future with the result, or NOT_COMPACT if the
+     * game needs the general encoding.
+     */
+    private CompletableFuture<Object> sendGame(String serviceName, long gameId, int op, Object[] params) {
+        int requestId = nextRequestId.getAndIncrement();
+        ByteBuffer buffer = FRAME_POOL.acquire();
+        try {
+            if (op == GameProtocol.OP_GET_SNAPSHOT_IF_CHANGED) {
+                GameProtocol.encodeConditionalCall(buffer, requestId, op, gameId, (Long) params[0], 0);
+            } else if (op == GameProtocol.OP_AWAIT_CHANGE) {
+                int timeoutMillis = (int) Math.max(0, Math.min((Long) params[1], Integer.MAX_VALUE));
+                GameProtocol.encodeConditionalCall(buffer, requestId, op, gameId, (Long) params[0], timeoutMillis);
+            } else {
+                boolean move = op == GameProtocol.OP_MAKE_MOVE || op == GameProtocol.OP_PLAY;
+                char player = move ? (Character) params[0] : 0;
+                int position = move ? (Integer) params[1] : 0;
+                GameProtocol.encodeCall(buffer, requestId, op, player, position, gameId);
+            }
+            return send(requestId, new Pending(op, serviceName), buffer);
+        } finally {
+            FRAME_POOL.release(buffer);
+        }
+    }
+
+    private CompletableFuture<Object> send(int requestId, Pending call, ByteBuffer frame) {
+        pending.put(requestId, call);
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            failAll(e);
+        }
+        // The reader may have failed everything before this call was registered
+        IOException failed = failure;
+        if (failed != null && pending.remove(requestId) != null) {
+            call.future.completeExceptionally(new UncheckedIOException(failed));
+        }
+        return call.future;
+    }
+
+    private static boolean hasCompactParams(int op, Object[] params) {
+        switch (op) {
+            case GameProtocol.OP_MAKE_MOVE:
+            case GameProtocol.OP_PLAY:
+                return params.length >= 2 && params[0] instanceof Character && params[1] instanceof Integer;
+            case GameProtocol.OP_GET_SNAPSHOT_IF_CHANGED:
+                return params.length >= 1 && params[0] instanceof Long;
+            case GameProtocol.OP_AWAIT_CHANGE:
+                return params.length >= 2 && params[0] instanceof Long && params[1] instanceof Long;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Reads replies until the connection closes, completing each pending call.
+     * Compact replies are decoded from one reused buffer.
+     */
+    private void readLoop() {
+        ByteBuffer header = ByteBuffer.allocate(WireCodec.HEADER_BYTES);
+        ByteBuffer body = ByteBuffer.allocate(256);
+        try {
+            while (true) {
+                header.clear();
+                readFully(header);
+                int length = header.getInt(0);
+                if (length <= 0 || length > WireCodec.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length: " + length);
+                }
+                if (body.capacity() < length) {
+                    body = ByteBuffer.allocate(length);
+                }
+                body.clear().limit(length);
+                readFully(body);
+                body.flip();
+
+                Pending call = pending.remove(body.getInt(0));
+                if (call == null) {
+                    throw new IOException("Reply to unknown request " + body.getInt(0));
+                }
+                try {
+                    call.future.complete(decodeReply(call, body));
+                } catch (RuntimeException e) {
+                    call.future.completeExceptionally(e);
+                }
+            }
+        } catch (IOException e) {
+            failAll(e);
+        }
+    }
+
+    private static Object decodeReply(Pending call, ByteBuffer body) throws IOException {
+        byte type = body.get(4);
+        if (call.op > 0 && type == GameProtocol.TYPE_GAME_RESULT
+                && body.limit() == GameProtocol.RESULT_BODY_BYTES) {
+            body.position(5);
+            int status = body.get();
+            if (status == GameProtocol.NOT_COMPACT) {
+                return NOT_COMPACT;
+            }
+            int state = body.getInt();
+            long version = body.getLong();
+            return GameProtocol.render(call.op, status, state, version, call.serviceName);
+        }
+        if (call.op == 0 && type == WireCodec.TYPE_RESULT) {
+            DataInputStream in = WireCodec.open(body.array());
+            in.skipBytes(5); // request id and type
+            return WireCodec.readValue(in);
+        }
+        throw new IOException("Unexpected reply frame");
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Connection closed by server");
+            }
+        }
+    }
+
+    /**
+     * Closes the connection and fails every call still waiting for a reply.
+     */
+    private void failAll(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already failing
+        }
+        for (Integer requestId : pending.keySet()) {
+            Pending call = pending.remove(requestId);
+            if (call != null) {
+                call.future.completeExceptionally(new UncheckedIOException(failure));
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
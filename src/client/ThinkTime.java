@@ -0,0 +1,79 @@
+package client;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a simulated player thinks before each move.
+ * Written on the command line as {@code none}, {@code fixed:MS},
+ * {@code uniform:MIN-MAX} or {@code exp:MEAN}, all in milliseconds.
+ */
+public interface ThinkTime {
+    ThinkTime NONE = () -> 0;
+
+    /**
+     * @return the next pause in nanoseconds
+     */
+    long nextNanos();
+
+    /**
+     * Sleeps for the next pause.
+     * @throws InterruptedException if interrupted while sleeping
+     */
+    default void pause() throws InterruptedException {
+        long nanos = nextNanos();
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    static ThinkTime fixed(long millis) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        return () -> nanos;
+    }
+
+    static ThinkTime uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("Think time range is empty: " + minMillis + "-" + maxMillis);
+        }
+        long min = TimeUnit.MILLISECONDS.toNanos(minMillis);
+        long max = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+        return () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    /**
+     * Exponentially distributed pauses: players act independently at a steady mean rate.
+     */
+    static ThinkTime exponential(long meanMillis) {
+        double mean = TimeUnit.MILLISECONDS.toNanos(meanMillis);
+        return () -> (long) (-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * @param spec {@code none}, {@code fixed:MS}, {@code uniform:MIN-MAX} or {@code exp:MEAN}
+     * @return the distribution
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    static ThinkTime parse(String spec) {
+        String[] parts = spec.split(":", 2);
+        try {
+            switch (parts[0]) {
+                case "none":
+                    return NONE;
+                case "fixed":
+                    return fixed(Long.parseLong(parts[1]));
+                case "uniform":
+                    String[] range = parts[1].split("-", 2);
+                    return uniform(Long.parseLong(range[0]), Long.parseLong(range[1]));
+                case "exp":
+                    return exponential(Long.parseLong(parts[1]));
+                default:
+                    break;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Unknown think time '" + spec
+            + "'; use none, fixed:MS, uniform:MIN-MAX or exp:MEAN");
+    }
+}
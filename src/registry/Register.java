@@ -2,76 +2,295 @@
 package registry;
 
 import client.ServiceReference;
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service registry for dynamic service discovery.
  * Caches service references for efficient lookup.
+ * Backed by a {@link ConcurrentHashMap}, so lookups take no lock and
+ * never pin a virtual thread.
+ *
+ * Each binding is a lease: it expires after a time to live unless renewed,
+ * and a background sweep removes expired leases. The registry is also
+ * bounded; binding past the bound evicts the least recently looked-up
+ * entries. Display and clear work on the live map and never block readers.
+ * Every change is announced to {@link RegistryListener}s, so client-side
+ * copies of a binding are invalidated rather than left to go stale.
  */
 public class Register {
-    private Map<String, ServiceReference> serviceRegistry;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private static final long MIN_SWEEP_MILLIS = 100;
+    private static final long MAX_SWEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // LRU order only needs to be this precise; hot lookups then rarely write the shared entry
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // One daemon thread sweeps every registry in the process
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "registry-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Lease> serviceRegistry = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final List<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * A binding and its expiry.
+     */
+    private static final class Lease {
+        final ServiceReference ref;
+        final long ttlNanos;
+        final long expiresAt; // System.nanoTime() deadline; unused when ttlNanos is 0
+        volatile long lastAccess;
+
+        Lease(ServiceReference ref, long ttlNanos, long now) {
+            this.ref = ref;
+            this.ttlNanos = ttlNanos;
+            this.expiresAt = now + ttlNanos;
+            this.lastAccess = now;
+        }
+
+        boolean isExpired(long now) {
+            return ttlNanos > 0 && now - expiresAt >= 0;
+        }
+    }
 
     public Register() {
-        this.serviceRegistry = new HashMap<>();
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param ttlMillis default lease length; 0 keeps bindings until unbound or evicted
+     * @param maxEntries most bindings kept at once
+     */
+    public Register(long ttlMillis, int maxEntries) {
+        if (ttlMillis < 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("TTL must be >= 0 and the bound >= 1");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        if (ttlMillis > 0) {
+            long period = Math.max(MIN_SWEEP_MILLIS, Math.min(ttlMillis / 2, MAX_SWEEP_MILLIS));
+            Sweeper sweeper = new Sweeper(this);
+            sweeper.task = EVICTOR.scheduleWithFixedDelay(sweeper, period, period, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
      * Looks up a service by name.
      * @param serviceName the name of the service
-     * @return ServiceReference if found, null otherwise
+     * @return ServiceReference if found and its lease is live, null otherwise
      */
-    public synchronized ServiceReference lookup(String serviceName) {
-        return serviceRegistry.get(serviceName);
+    public ServiceReference lookup(String serviceName) {
+        Lease lease = serviceRegistry.get(serviceName);
+        long now = System.nanoTime();
+        if (lease == null || lease.isExpired(now)) {
+            if (lease != null && serviceRegistry.remove(serviceName, lease)) {
+                evictions.increment();
+                invalidate(serviceName);
+            }
+            misses.increment();
+            return null;
+        }
+        if (now - lease.lastAccess > ACCESS_GRANULARITY_NANOS) {
+            lease.lastAccess = now;
+        }
+        hits.increment();
+        return lease.ref;
     }
 
     /**
-     * Binds or rebinds a service reference in the registry.
+     * Binds or rebinds a service reference with the registry's default lease.
      * @param serviceName the name of the service
      * @param ref the service reference
      */
-    public synchronized void rebind(String serviceName, ServiceReference ref) {
-        serviceRegistry.put(serviceName, ref);
+    public void rebind(String serviceName, ServiceReference ref) {
+        rebind(serviceName, ref, TimeUnit.NANOSECONDS.toMillis(ttlNanos));
+    }
+
+    /**
+     * Binds or rebinds a service reference for a given time.
+     * @param serviceName the name of the service
+     * @param ref the service reference
+     * @param ttlMillis lease length; 0 keeps the binding until unbound or evicted
+     */
+    public void rebind(String serviceName, ServiceReference ref, long ttlMillis) {
+        serviceRegistry.put(serviceName, new Lease(ref, TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis)),
+            System.nanoTime()));
         System.out.println("[Registry] Service '" + serviceName + "' registered.");
+        invalidate(serviceName);
+        while (serviceRegistry.size() > maxEntries) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Extends a binding's lease by its full length from now.
+     * @param serviceName the name of the service
+     * @return true if the service was bound and its lease still live
+     */
+    public boolean renew(String serviceName) {
+        long now = System.nanoTime();
+        return serviceRegistry.computeIfPresent(serviceName, (name, lease) ->
+            lease.isExpired(now) ? null : new Lease(lease.ref, lease.ttlNanos, now)) != null;
     }
 
     /**
      * Removes a service from the registry.
      * @param serviceName the name of the service
      */
-    public synchronized void unbind(String serviceName) {
+    public void unbind(String serviceName) {
         serviceRegistry.remove(serviceName);
         System.out.println("[Registry] Service '" + serviceName + "' unregistered.");
+        invalidate(serviceName);
+    }
+
+    /**
+     * Removes every expired lease now; the background sweep calls this periodically.
+     * @return number of bindings removed
+     */
+    public int evictExpired() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Map.Entry<String, Lease> entry : serviceRegistry.entrySet()) {
+            if (entry.getValue().isExpired(now) && serviceRegistry.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+                invalidate(entry.getKey());
+            }
+        }
+        if (removed > 0) {
+            evictions.add(removed);
+            System.out.println("[Registry] Evicted " + removed + " expired service(s).");
+        }
+        return removed;
+    }
+
+    /**
+     * Drops the binding looked up longest ago. A full scan, so only run on overflow.
+     */
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<String, Lease> oldest = null;
+        for (Map.Entry<String, Lease> entry : serviceRegistry.entrySet()) {
+            if (oldest == null || entry.getValue().lastAccess - oldest.getValue().lastAccess < 0) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null && serviceRegistry.remove(oldest.getKey(), oldest.getValue())) {
+            evictions.increment();
+            System.out.println("[Registry] Service '" + oldest.getKey() + "' evicted (registry full).");
+            invalidate(oldest.getKey());
+        }
+    }
+
+    /**
+     * @return number of bindings, including expired ones not yet swept
+     */
+    public int size() {
+        return serviceRegistry.size();
     }
 
     /**
      * Displays all cached services in the console.
      */
-    public synchronized void displayCache() {
+    public void displayCache() {
+        long now = System.nanoTime();
         System.out.println("\n" + "=".repeat(50));
         System.out.println("REGISTRY CACHE STATUS");
         System.out.println("=".repeat(50));
-        
+
         if (serviceRegistry.isEmpty()) {
             System.out.println("⚠ Registry cache is EMPTY - no services cached.");
         } else {
             System.out.println("Found " + serviceRegistry.size() + " service(s) in cache:");
             System.out.println("-".repeat(50));
-            
-            for (Map.Entry<String, ServiceReference> entry : serviceRegistry.entrySet()) {
+
+            for (Map.Entry<String, Lease> entry : serviceRegistry.entrySet()) {
                 String serviceName = entry.getKey();
-                ServiceReference ref = entry.getValue();
+                Lease lease = entry.getValue();
+                ServiceReference ref = lease.ref;
                 System.out.println("  • Service: " + serviceName);
                 System.out.println("    Location: " + ref.getServiceName());
                 System.out.println("    Dispatcher: " + ref.getDispatcher().getClass().getSimpleName());
+                System.out.println("    Lease: " + (lease.ttlNanos == 0 ? "no expiry"
+                    : Math.max(0, TimeUnit.NANOSECONDS.toSeconds(lease.expiresAt - now)) + " s left"));
                 System.out.println();
             }
         }
+        System.out.println("Lookups: " + hits.sum() + " hits, " + misses.sum() + " misses; "
+            + evictions.sum() + " evicted");
         System.out.println("=".repeat(50) + "\n");
     }
 
-    public synchronized void clearCache() {
+    public void clearCache() {
         serviceRegistry.clear();
         System.out.println("[Registry] Cache cleared - all services removed.");
+        invalidate(null);
+    }
+
+    /**
+     * Registers a listener for rebinds, unbinds, expiries and evictions.
+     * @param listener the listener
+     */
+    public void addRegistryListener(RegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     * @param listener the listener
+     */
+    public void removeRegistryListener(RegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Tells every listener a binding changed; a failing listener does not affect the others.
+     */
+    private void invalidate(String serviceName) {
+        for (RegistryListener listener : listeners) {
+            try {
+                listener.onInvalidate(serviceName);
+            } catch (RuntimeException e) {
+                System.err.println("[Registry] Listener failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Periodic sweep of one registry. Holds it weakly, so a registry
+     * nobody uses any more is collected and its sweep cancelled.
+     */
+    private static final class Sweeper implements Runnable {
+        private final WeakReference<Register> registry;
+        volatile ScheduledFuture<?> task;
+
+        Sweeper(Register registry) {
+            this.registry = new WeakReference<>(registry);
+        }
+
+        @Override
+        public void run() {
+            Register live = registry.get();
+            if (live == null) {
+                task.cancel(false);
+                return;
+            }
+            live.evictExpired();
+        }
     }
-}
\ No newline at end of file
+}
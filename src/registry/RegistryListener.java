@@ -0,0 +1,16 @@
+// src/registry/RegistryListener.java
+package registry;
+
+/**
+ * Told when a {@link Register} binding changes or goes away, so copies of
+ * it held elsewhere (e.g. a client's near cache) can be dropped.
+ * Called on the thread that changed the registry; implementations should
+ * return quickly.
+ */
+public interface RegistryListener {
+    /**
+     * Called after a service is rebound, unbound, expired or evicted.
+     * @param serviceName the changed binding, or null if the whole registry was cleared
+     */
+    void onInvalidate(String serviceName);
+}
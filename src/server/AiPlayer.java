@@ -0,0 +1,241 @@
+// src/server/AiPlayer.java
+package server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computer opponent that plays one side of a game.
+ * On 3x3 boards it plays perfectly with a {@link PerfectPlayTable} lookup,
+ * answering on the thread that made the previous move. On larger boards
+ * it runs a {@link ParallelSearch}, bounded by a per-move time budget, on
+ * threads of its own, so movers and request threads never wait for it.
+ * The search threads are capped at half the cores and the callers at a
+ * quarter, leaving the rest for move handling. Chosen moves are kept in
+ * a {@link PositionCache} shared by all games, keyed by the position's
+ * canonical form, so a rotated or mirrored repeat of a searched position
+ * is answered without searching.
+ */
+public class AiPlayer implements GameListener {
+    public static final long DEFAULT_MOVE_BUDGET_MILLIS = 200;
+
+    // A concurrent move between our read and our play makes the play fail; try again
+    private static final int MAX_ATTEMPTS = 4;
+    private static final AsyncLogger LOG = AsyncLogger.shared();
+
+    private static volatile long moveBudgetMillis = DEFAULT_MOVE_BUDGET_MILLIS;
+
+    private final GameService game;
+    private final char side;
+    private final ParallelSearch search;
+    private final BoardSymmetry symmetry;
+
+    /**
+     * @param game the game to play in
+     * @param side 'X' or 'O'
+     */
+    public AiPlayer(GameService game, char side) {
+        this.game = game;
+        this.side = side;
+        this.search = game.isClassicBoard() ? null
+            : SearchPool.forShape(game.getRows(), game.getCols(), game.getWinLength());
+        this.symmetry = game.isClassicBoard() ? null
+            : BoardSymmetry.of(game.getRows(), game.getCols(), game.getWinLength());
+    }
+
+    public char getSide() {
+        return side;
+    }
+
+    /**
+     * Sets the time each search may take to pick a move on boards larger than 3x3.
+     * @param millis budget per move
+     */
+    public static void setMoveBudgetMillis(long millis) {
+        moveBudgetMillis = Math.max(1, millis);
+    }
+
+    public static long getMoveBudgetMillis() {
+        return moveBudgetMillis;
+    }
+
+    @Override
+    public void onGameEvent(GameEvent event) {
+        if (event.getSnapshot().isInProgress() && event.getSnapshot().getCurrentPlayer() == side) {
+            requestMove();
+        }
+    }
+
+    /**
+     * Moves now on 3x3 boards, or queues a search on larger ones.
+     */
+    void requestMove() {
+        if (search == null) {
+            moveIfDue();
+        } else {
+            SearchPool.EXECUTOR.execute(this::moveIfDue);
+        }
+    }
+
+    /**
+     * Plays a move if it is this side's turn, blocking for the search on larger boards.
+     * @return true if a move was made
+     */
+    public boolean moveIfDue() {
+        return search == null ? playFromTable() : playFromSearch();
+    }
+
+    private boolean playFromTable() {
+        PerfectPlayTable table = PerfectPlayTable.get();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int state = GameProtocol.stateOf(game.getStateWord());
+            if (GameProtocol.outcome(state) != GameProtocol.IN_PROGRESS
+                    || GameProtocol.currentPlayer(state) != side) {
+                return false;
+            }
+
+            int position = table.bestMove(GameProtocol.xMask(state), GameProtocol.oMask(state));
+            if (position < 0) {
+                return false;
+            }
+            if (MoveResult.of(game.play(side, position)).isAccepted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One search at a time per AI; a second one would only find the move already played
+    private synchronized boolean playFromSearch() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            GameSnapshot snapshot = game.getSnapshot();
+            if (!snapshot.isInProgress() || snapshot.getCurrentPlayer() != side) {
+                return false;
+            }
+
+            char[] board = snapshot.getBoard();
+            long canonical = symmetry.canonicalize(board, side);
+            long cached = SearchPool.CACHE.lookup(BoardSymmetry.keyOf(canonical));
+            // Cached as canonical cell + 1, so that zero stays free for "empty"
+            int position = cached != 0 ? symmetry.toOriginal(canonical, (int) cached - 1) : -1;
+            // A taken cell can only come from a key collision; search instead
+            if (position < 0 || board[position] != '-') {
+                long start = System.nanoTime();
+                position = search.bestMove(board, side, TimeUnit.MILLISECONDS.toNanos(moveBudgetMillis));
+                if (position < 0) {
+                    return false;
+                }
+                SearchPool.CACHE.store(BoardSymmetry.keyOf(canonical), symmetry.toCanonical(canonical, position) + 1);
+                LOG.log(AsyncLogger.Level.INFO, "AI", "{} chose {} in {} ms.",
+                    side, position, (System.nanoTime() - start) / 1_000_000);
+            }
+            if (MoveResult.of(game.play(side, position)).isAccepted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the AI attached to a game.
+     * Used by the game services to implement setAiPlayer.
+     * @param game the game
+     * @param slot the game's current AI, if any
+     * @param side 'X' or 'O' to attach an AI for that side, anything else to detach
+     * @return confirmation message
+     */
+    static String install(GameService game, AtomicReference<AiPlayer> slot, char side) {
+        return start(attach(game, slot, side));
+    }
+
+    /**
+     * First half of {@link #install}: swaps the AI without letting it move,
+     * so a game can do this under its lock and start the AI after.
+     * @return the new AI, or null if the AI is now off
+     */
+    static AiPlayer attach(GameService game, AtomicReference<AiPlayer> slot, char side) {
+        AiPlayer ai = (side == 'X' || side == 'O') ? new AiPlayer(game, side) : null;
+        AiPlayer previous = slot.getAndSet(ai);
+        if (previous != null) {
+            game.removeGameListener(previous);
+        }
+        if (ai != null) {
+            game.addGameListener(ai);
+        }
+        return ai;
+    }
+
+    /**
+     * Second half of {@link #install}: lets an attached AI move if it is due.
+     * @param ai the AI returned by {@link #attach}, or null
+     * @return confirmation message
+     */
+    static String start(AiPlayer ai) {
+        if (ai == null) {
+            return "AI disabled.";
+        }
+        ai.requestMove();
+        return "AI plays " + ai.side + ".";
+    }
+
+    /**
+     * Search resources, created on the first game larger than 3x3.
+     */
+    private static final class SearchPool {
+        static final int CORES = Runtime.getRuntime().availableProcessors();
+        // 2^18 entries, 4 MB, shared by every search
+        static final TranspositionTable TABLE = new TranspositionTable(1 << 18);
+        // 2^16 chosen moves, 1 MB, shared by every game
+        static final PositionCache CACHE = new PositionCache(1 << 16);
+        static final ForkJoinPool FORK_JOIN = new ForkJoinPool(Math.max(1, CORES / 2), pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("ai-search-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+        // Threads that run each AI move; parallel searches block one while the pool works
+        static final ExecutorService EXECUTOR;
+        static final Map<Long, ParallelSearch> SEARCHES = new ConcurrentHashMap<>();
+
+        static {
+            AtomicInteger count = new AtomicInteger();
+            EXECUTOR = Executors.newFixedThreadPool(Math.max(1, CORES / 4), r -> {
+                Thread t = new Thread(r, "ai-move-" + count.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        static ParallelSearch forShape(int rows, int cols, int winLength) {
+            // Few splits at once; the other moves search alone on their ai-move thread
+            return SEARCHES.computeIfAbsent(shapeKey(rows, cols, winLength), k -> new ParallelSearch(
+                rows, cols, winLength, TABLE, FORK_JOIN, Math.max(1, FORK_JOIN.getParallelism() / 4)));
+        }
+
+        static long shapeKey(int rows, int cols, int winLength) {
+            return ((long) rows << 32) | ((long) cols << 16) | winLength;
+        }
+    }
+
+    /**
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @return search statistics for that board shape, or null if no AI has played it
+     */
+    public static String getSearchStats(int rows, int cols, int winLength) {
+        ParallelSearch search = SearchPool.SEARCHES.get(SearchPool.shapeKey(rows, cols, winLength));
+        if (search == null) {
+            return null;
+        }
+        PositionCache cache = SearchPool.CACHE;
+        return search.getStats() + "; move cache " + cache.getHits() + " hits, " + cache.getMisses() + " misses";
+    }
+}
@@ -0,0 +1,553 @@
+// src/server/AlphaBetaSearch.java
+package server;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Iterative-deepening alpha-beta search for m,n,k boards too large for
+ * {@link PerfectPlayTable}.
+ *
+ * The evaluation counts, for every line of k cells, the stones of each
+ * side; a line only one side occupies is worth more the fuller it is.
+ * Counts and the total are kept up to date as stones are placed and
+ * removed, so a leaf costs nothing to evaluate and a win is seen the
+ * moment a line fills. Moves are ordered by the transposition table's
+ * best move, then by how much they extend or block lines, then by a
+ * history score. Only empty cells within two of an existing stone are
+ * searched.
+ *
+ * All buffers are allocated up front, so the search does not allocate
+ * per node. An instance is not thread-safe; give each game its own and
+ * share the {@link TranspositionTable} instead.
+ */
+public class AlphaBetaSearch {
+    public static final int WIN = 1_000_000;
+    public static final int MAX_DEPTH = 64;
+    static final int ABORTED = Integer.MIN_VALUE;
+
+    private static final int EMPTY = 0;
+    private static final int X = 1;
+    private static final int O = 2;
+    private static final int NEAR_RADIUS = 2;
+    private static final int EVAL_LIMIT = WIN / 2;
+    private static final int TT_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int WIN_MOVE_VALUE = 1 << 28;
+    private static final int BLOCK_MOVE_VALUE = 1 << 24;
+    // A line with c stones of one side is worth LINE_WEIGHTS[min(c, 6)]
+    private static final long[] LINE_WEIGHTS = {0, 1, 8, 64, 512, 4096, 32768};
+
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final int cellCount;
+    private final TranspositionTable table;
+
+    // Zobrist keys: one per cell and side, plus one for O to move
+    private final long[] zobrist;
+    private final long sideKey;
+
+    // Lines of winLength cells, and for each cell the lines through it
+    private final int[] lineCells;
+    private final int[] cellLineStart;
+    private final int[] cellLines;
+    // Cells within NEAR_RADIUS of each cell
+    private final int[] nearStart;
+    private final int[] nearCells;
+
+    // Position being searched
+    private final byte[] board;
+    private final int[] xCount;
+    private final int[] oCount;
+    private final int[] nearStones;
+    private long hash;
+    private long evaluation; // X's point of view
+    private int stones;
+
+    // Per-ply move lists, history heuristic and search control
+    private final int[][] moves;
+    private final int[][] moveScores;
+    private final int[] history;
+    private long nodes;
+    private long deadline;
+    private boolean timed;
+    private boolean aborted;
+    private int rootSide;
+    private int rootMove;
+    private int completedDepth;
+
+    /**
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @param table transposition table, may be shared with other searches
+     */
+    public AlphaBetaSearch(int rows, int cols, int winLength, TranspositionTable table) {
+        if (rows < 1 || cols < 1 || rows > MnkBoard.MAX_SIDE || cols > MnkBoard.MAX_SIDE
+                || winLength < 1 || winLength > Math.max(rows, cols)) {
+            throw new IllegalArgumentException("Unsupported board " + rows + "x" + cols + ", k=" + winLength);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.cellCount = rows * cols;
+        this.table = table;
+
+        // Same shape, same keys, so searches of the same shape can share entries
+        SplittableRandom random = new SplittableRandom(((long) rows << 32) ^ ((long) cols << 16) ^ winLength);
+        this.zobrist = new long[cellCount * 2];
+        for (int i = 0; i < zobrist.length; i++) {
+            zobrist[i] = random.nextLong();
+        }
+        this.sideKey = random.nextLong();
+
+        this.lineCells = buildLines();
+        int lineCount = lineCells.length / winLength;
+        this.cellLineStart = new int[cellCount + 1];
+        for (int cell : lineCells) {
+            cellLineStart[cell + 1]++;
+        }
+        for (int i = 0; i < cellCount; i++) {
+            cellLineStart[i + 1] += cellLineStart[i];
+        }
+        this.cellLines = new int[lineCells.length];
+        int[] fill = cellLineStart.clone();
+        for (int i = 0; i < lineCells.length; i++) {
+            cellLines[fill[lineCells[i]]++] = i / winLength;
+        }
+
+        this.nearStart = new int[cellCount + 1];
+        int nearTotal = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            nearStart[cell] = nearTotal;
+            nearTotal += countNear(cell, null, 0);
+        }
+        nearStart[cellCount] = nearTotal;
+        this.nearCells = new int[nearTotal];
+        for (int cell = 0; cell < cellCount; cell++) {
+            countNear(cell, nearCells, nearStart[cell]);
+        }
+
+        this.board = new byte[cellCount];
+        this.xCount = new int[lineCount];
+        this.oCount = new int[lineCount];
+        this.nearStones = new int[cellCount];
+
+        int plies = Math.min(cellCount, MAX_DEPTH) + 1;
+        this.moves = new int[plies][cellCount];
+        this.moveScores = new int[plies][cellCount];
+        this.history = new int[cellCount];
+    }
+
+    /**
+     * Searches deeper and deeper until the deadline, keeping the best move
+     * of the last finished depth. Depth 1 always finishes, so a legal move
+     * is returned even with no time left.
+     * @param cells board cells, 'X', 'O' or '-', row-major
+     * @param side the side to move, 'X' or 'O'
+     * @param budgetNanos time allowed for this call
+     * @return the chosen cell, or -1 if the game is already over
+     */
+    public int bestMove(char[] cells, char side, long budgetNanos) {
+        return bestMove(cells, side, budgetNanos, MAX_DEPTH);
+    }
+
+    /**
+     * Same as {@link #bestMove(char[], char, long)}, stopping at a fixed depth.
+     * @param maxDepth deepest iteration to run
+     */
+    public int bestMove(char[] cells, char side, long budgetNanos, int maxDepth) {
+        if (!setPosition(cells, side)) {
+            return -1;
+        }
+
+        timed = false;
+        deadline = System.nanoTime() + budgetNanos;
+        for (int i = 0; i < cellCount; i++) {
+            history[i] >>= 2;
+        }
+
+        int best = -1;
+        int lastDepth = Math.min(Math.min(cellCount - stones, MAX_DEPTH), maxDepth);
+        for (int depth = 1; depth <= lastDepth; depth++) {
+            rootMove = -1;
+            int score = negamax(depth, 0, -WIN - 1, WIN + 1, rootSide);
+            if (aborted) {
+                break;
+            }
+            best = rootMove;
+            completedDepth = depth;
+            // Only the first iteration is exempt from the deadline
+            timed = true;
+            if (Math.abs(score) >= WIN - MAX_DEPTH) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Loads a position for {@link #rootMoves} and {@link #searchRoot}, and
+     * clears the node count.
+     * @return false if the game is already won or drawn
+     */
+    boolean setPosition(char[] cells, char side) {
+        if (cells.length != cellCount) {
+            throw new IllegalArgumentException("Expected " + cellCount + " cells, got " + cells.length);
+        }
+        rootSide = side == 'X' ? X : O;
+        nodes = 0;
+        completedDepth = 0;
+        aborted = false;
+        return load(cells, side) && stones < cellCount;
+    }
+
+    /**
+     * Lists the moves of the loaded position, best first.
+     * @param out array of at least rows * cols entries
+     * @return number of moves
+     */
+    int rootMoves(int[] out) {
+        long entry = table.probe(hash);
+        int count = generateMoves(0, entry != 0 ? TranspositionTable.moveOf(entry) : -1, rootSide);
+        System.arraycopy(moves[0], 0, out, 0, count);
+        return count;
+    }
+
+    /**
+     * Searches one move of the loaded position; used to split the root
+     * between threads.
+     * @param move the root move
+     * @param depth depth including the root move
+     * @param alpha score the move must beat to matter
+     * @param deadlineNanos System.nanoTime() value at which to give up
+     * @param timed false to ignore the deadline
+     * @return score for the side to move, or {@link #ABORTED}
+     */
+    int searchRoot(int move, int depth, int alpha, long deadlineNanos, boolean timed) {
+        this.deadline = deadlineNanos;
+        this.timed = timed;
+        this.aborted = false;
+        int opponent = rootSide == X ? O : X;
+        int score;
+        if (place(move, rootSide)) {
+            score = WIN - 1;
+        } else if (stones == cellCount) {
+            score = 0;
+        } else {
+            score = -negamax(depth - 1, 1, -WIN - 1, -alpha, opponent);
+        }
+        remove(move, rootSide);
+        return aborted ? ABORTED : score;
+    }
+
+    /**
+     * @return nodes visited since the position was last set
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return deepest iteration the last {@link #bestMove} call finished
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, int mover) {
+        nodes++;
+        if (timed && (nodes & 1023) == 0 && System.nanoTime() - deadline > 0) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (depth == 0) {
+            int value = (int) Math.max(-EVAL_LIMIT, Math.min(EVAL_LIMIT, evaluation));
+            return mover == X ? value : -value;
+        }
+
+        int alphaIn = alpha;
+        int ttMove = -1;
+        long entry = table.probe(hash);
+        if (entry != 0) {
+            ttMove = TranspositionTable.moveOf(entry);
+            if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+                int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int count = generateMoves(ply, ttMove, mover);
+        int[] list = moves[ply];
+        int opponent = mover == X ? O : X;
+        int bestScore = -WIN - 1;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            int score;
+            if (place(move, mover)) {
+                score = WIN - (ply + 1);
+            } else if (stones == cellCount) {
+                score = 0;
+            } else {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha, opponent);
+            }
+            remove(move, mover);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootMove = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                history[move] += depth * depth;
+                break;
+            }
+        }
+
+        int bound = bestScore <= alphaIn ? TranspositionTable.UPPER
+            : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(hash, depth, bound, toTable(bestScore, ply), bestMove);
+        return bestScore;
+    }
+
+    /**
+     * Fills moves[ply] with candidate cells, best first.
+     * @return number of candidates
+     */
+    private int generateMoves(int ply, int ttMove, int mover) {
+        if (stones == 0) {
+            // Start in the centre
+            moves[ply][0] = (rows / 2) * cols + cols / 2;
+            return 1;
+        }
+        int count = collectMoves(ply, ttMove, mover, true);
+        // Every cell near a stone is taken; fall back to the rest
+        return count > 0 ? count : collectMoves(ply, ttMove, mover, false);
+    }
+
+    private int collectMoves(int ply, int ttMove, int mover, boolean nearOnly) {
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        int count = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (board[cell] != EMPTY || (nearOnly && nearStones[cell] == 0)) {
+                continue;
+            }
+            int score = cell == ttMove ? TT_MOVE_SCORE : moveValue(cell, mover) + history[cell];
+            // Insertion sort keeps the list ordered as it grows
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                list[i] = list[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            list[i] = cell;
+            scores[i] = score;
+        }
+        return count;
+    }
+
+    /**
+     * Scores a candidate by the lines it would extend for the mover and
+     * block for the opponent; completing or blocking a win ranks first.
+     */
+    private int moveValue(int cell, int mover) {
+        int[] own = mover == X ? xCount : oCount;
+        int[] other = mover == X ? oCount : xCount;
+        long value = 0;
+        for (int i = cellLineStart[cell]; i < cellLineStart[cell + 1]; i++) {
+            int line = cellLines[i];
+            if (other[line] == 0) {
+                value += own[line] + 1 == winLength ? WIN_MOVE_VALUE : LINE_WEIGHTS[Math.min(own[line] + 1, 6)];
+            }
+            if (own[line] == 0 && other[line] > 0) {
+                value += other[line] + 1 == winLength ? BLOCK_MOVE_VALUE : LINE_WEIGHTS[Math.min(other[line], 6)];
+            }
+        }
+        return (int) Math.min(value, TT_MOVE_SCORE - 1);
+    }
+
+    /**
+     * Places a stone and updates line counts, evaluation and hash.
+     * @return true if the stone completes a line of winLength
+     */
+    private boolean place(int cell, int side) {
+        board[cell] = (byte) side;
+        stones++;
+        hash ^= zobrist[cell * 2 + side - 1] ^ sideKey;
+        for (int i = nearStart[cell]; i < nearStart[cell + 1]; i++) {
+            nearStones[nearCells[i]]++;
+        }
+
+        boolean won = false;
+        for (int i = cellLineStart[cell]; i < cellLineStart[cell + 1]; i++) {
+            int line = cellLines[i];
+            evaluation -= lineValue(xCount[line], oCount[line]);
+            int count = side == X ? ++xCount[line] : ++oCount[line];
+            evaluation += lineValue(xCount[line], oCount[line]);
+            if (count == winLength) {
+                won = true;
+            }
+        }
+        return won;
+    }
+
+    private void remove(int cell, int side) {
+        board[cell] = EMPTY;
+        stones--;
+        hash ^= zobrist[cell * 2 + side - 1] ^ sideKey;
+        for (int i = nearStart[cell]; i < nearStart[cell + 1]; i++) {
+            nearStones[nearCells[i]]--;
+        }
+
+        for (int i = cellLineStart[cell]; i < cellLineStart[cell + 1]; i++) {
+            int line = cellLines[i];
+            evaluation -= lineValue(xCount[line], oCount[line]);
+            if (side == X) {
+                xCount[line]--;
+            } else {
+                oCount[line]--;
+            }
+            evaluation += lineValue(xCount[line], oCount[line]);
+        }
+    }
+
+    /**
+     * Resets the search position to the given cells.
+     * @return false if the position is already won
+     */
+    private boolean load(char[] cells, char side) {
+        Arrays.fill(board, (byte) EMPTY);
+        Arrays.fill(xCount, 0);
+        Arrays.fill(oCount, 0);
+        Arrays.fill(nearStones, 0);
+        hash = 0;
+        evaluation = 0;
+        stones = 0;
+
+        boolean won = false;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (cells[cell] == 'X' || cells[cell] == 'O') {
+                won |= place(cell, cells[cell] == 'X' ? X : O);
+            }
+        }
+        // place flips the side key once per stone; set it from the real side instead
+        if ((stones & 1) != 0) {
+            hash ^= sideKey;
+        }
+        if (side == 'O') {
+            hash ^= sideKey;
+        }
+        return !won;
+    }
+
+    private static long lineValue(int x, int o) {
+        if (x > 0 && o > 0) {
+            return 0;
+        }
+        if (x > 0) {
+            return LINE_WEIGHTS[Math.min(x, 6)];
+        }
+        return -LINE_WEIGHTS[Math.min(o, 6)];
+    }
+
+    /**
+     * Win scores are stored relative to the node, so the same entry is
+     * valid at any ply.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_DEPTH) {
+            return score + ply;
+        }
+        if (score <= -(WIN - MAX_DEPTH)) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_DEPTH) {
+            return score - ply;
+        }
+        if (score <= -(WIN - MAX_DEPTH)) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Lists every line of winLength cells: rows, columns and both diagonals.
+     * @return cells of each line, winLength entries per line
+     */
+    private int[] buildLines() {
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int total = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int[] out = pass == 0 ? null : new int[total * winLength];
+            int line = 0;
+            for (int[] step : steps) {
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c < cols; c++) {
+                        int endRow = r + step[0] * (winLength - 1);
+                        int endCol = c + step[1] * (winLength - 1);
+                        if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) {
+                            continue;
+                        }
+                        // A single cell is one line, not four
+                        if (winLength == 1 && step != steps[0]) {
+                            continue;
+                        }
+                        if (out != null) {
+                            for (int i = 0; i < winLength; i++) {
+                                out[line * winLength + i] = (r + step[0] * i) * cols + c + step[1] * i;
+                            }
+                        }
+                        line++;
+                    }
+                }
+            }
+            if (out != null) {
+                return out;
+            }
+            total = line;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Counts, and optionally lists, the other cells within NEAR_RADIUS of a cell.
+     */
+    private int countNear(int cell, int[] out, int offset) {
+        int row = cell / cols;
+        int col = cell % cols;
+        int count = 0;
+        for (int r = Math.max(0, row - NEAR_RADIUS); r <= Math.min(rows - 1, row + NEAR_RADIUS); r++) {
+            for (int c = Math.max(0, col - NEAR_RADIUS); c <= Math.min(cols - 1, col + NEAR_RADIUS); c++) {
+                if (r == row && c == col) {
+                    continue;
+                }
+                if (out != null) {
+                    out[offset + count] = r * cols + c;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,217 @@
+// src/server/AsyncLogger.java
+package server;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Console logging that keeps I/O and formatting off the caller's thread.
+ *
+ * A call checks the level first, then copies its template and arguments
+ * into a preallocated slot of a ring buffer and returns; a background
+ * thread fills in the {@code {}} placeholders and writes the line as
+ * {@code [Tag] message}. Nothing is allocated per call beyond boxing the
+ * arguments (small chars and numbers come from the box caches). If the
+ * ring is full the message is dropped and counted rather than blocking
+ * the caller, so it is safe to log from under a game lock.
+ *
+ * The level is read from the {@value #LEVEL_PROPERTY} system property
+ * (DEBUG, INFO, WARN or ERROR; default INFO).
+ */
+public final class AsyncLogger {
+    public static final String LEVEL_PROPERTY = "log.level";
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    /**
+     * One preallocated message; published once {@code sequence} is set.
+     */
+    private static final class Slot {
+        volatile long sequence = -1;
+        Level level;
+        String tag;
+        String template;
+        Object arg0;
+        Object arg1;
+        Object arg2;
+    }
+
+    private static final class Holder {
+        static final AsyncLogger SHARED = new AsyncLogger(DEFAULT_CAPACITY,
+            Level.valueOf(System.getProperty(LEVEL_PROPERTY, Level.INFO.name()).toUpperCase()));
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> SHARED.flush(1000), "log-flush"));
+        }
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile Level threshold;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread consumer;
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     * @param threshold lowest level written
+     */
+    public AsyncLogger(int capacity, Level threshold) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.threshold = threshold;
+        this.consumer = new Thread(this::drain, "async-logger");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * @return the process-wide logger
+     */
+    public static AsyncLogger shared() {
+        return Holder.SHARED;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    public void setLevel(Level level) {
+        this.threshold = level;
+    }
+
+    public void log(Level level, String tag, String message) {
+        if (isEnabled(level)) {
+            publish(level, tag, message, null, null, null);
+        }
+    }
+
+    public void log(Level level, String tag, String template, Object arg0) {
+        if (isEnabled(level)) {
+            publish(level, tag, template, arg0, null, null);
+        }
+    }
+
+    public void log(Level level, String tag, String template, Object arg0, Object arg1) {
+        if (isEnabled(level)) {
+            publish(level, tag, template, arg0, arg1, null);
+        }
+    }
+
+    public void log(Level level, String tag, String template, Object arg0, Object arg1, Object arg2) {
+        if (isEnabled(level)) {
+            publish(level, tag, template, arg0, arg1, arg2);
+        }
+    }
+
+    /**
+     * @return messages dropped because the ring was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Waits until every message logged before the call has been written.
+     * @param timeoutMillis how long to wait at most
+     * @return true if they were all written in time
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (consumed < target) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private void publish(Level level, String tag, String template, Object arg0, Object arg1, Object arg2) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= ring.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = ring[(int) sequence & mask];
+        slot.level = level;
+        slot.tag = tag;
+        slot.template = template;
+        slot.arg0 = arg0;
+        slot.arg1 = arg1;
+        slot.arg2 = arg2;
+        slot.sequence = sequence;
+    }
+
+    /**
+     * Consumer loop: writes slots in sequence order, parking briefly when idle.
+     */
+    private void drain() {
+        StringBuilder line = new StringBuilder(256);
+        long next = 0;
+        long reportedDrops = 0;
+        int idle = 0;
+        while (true) {
+            Slot slot = ring[(int) next & mask];
+            if (slot.sequence != next) {
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                long drops = dropped.sum();
+                if (drops != reportedDrops) {
+                    System.err.println("[Log] Dropped " + (drops - reportedDrops) + " message(s); ring full.");
+                    reportedDrops = drops;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            idle = 0;
+
+            line.setLength(0);
+            line.append('[').append(slot.tag).append("] ");
+            format(line, slot.template, slot.arg0, slot.arg1, slot.arg2);
+            PrintStream out = slot.level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+            slot.arg0 = null;
+            slot.arg1 = null;
+            slot.arg2 = null;
+            try {
+                out.println(line);
+            } catch (RuntimeException e) {
+                // Keep draining; a broken console must not stall callers
+            }
+            consumed = ++next;
+        }
+    }
+
+    private static void format(StringBuilder line, String template, Object arg0, Object arg1, Object arg2) {
+        int arg = 0;
+        int from = 0;
+        int at;
+        while ((at = template.indexOf("{}", from)) >= 0 && arg < 3) {
+            line.append(template, from, at).append(arg == 0 ? arg0 : arg == 1 ? arg1 : arg2);
+            arg++;
+            from = at + 2;
+        }
+        line.append(template, from, template.length());
+    }
+}
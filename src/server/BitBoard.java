@@ -0,0 +1,150 @@
+// src/server/BitBoard.java
+package server;
+
+/**
+ * Bitboard representation of a 3x3 Tic-Tac-Toe board.
+ * Each side is stored as a 9-bit mask where bit i is set when that
+ * side occupies position i (0-8, row-major).
+ * This is the fixed-size fast path of {@link GameBoard}; larger boards use {@link MnkBoard}.
+ */
+public class BitBoard implements GameBoard {
+    public static final int CELLS = 9;
+    public static final int FULL_MASK = 0x1FF;
+
+    // Rows, columns and diagonals as bit masks
+    private static final int[] WIN_MASKS = {
+        0b000_000_111, 0b000_111_000, 0b111_000_000,
+        0b001_001_001, 0b010_010_010, 0b100_100_100,
+        0b100_010_001, 0b001_010_100
+    };
+
+    private int xMask;
+    private int oMask;
+
+    /**
+     * Places a player's mark. Caller must check the cell is empty.
+     * @param player 'X' or 'O'
+     * @param position the position (0-8)
+     */
+    public void place(char player, int position) {
+        if (player == 'X') {
+            xMask |= 1 << position;
+        } else {
+            oMask |= 1 << position;
+        }
+    }
+
+    /**
+     * Checks whether a position is taken by either side.
+     * @param position the position (0-8)
+     * @return true if occupied
+     */
+    public boolean isOccupied(int position) {
+        return ((xMask | oMask) & (1 << position)) != 0;
+    }
+
+    /**
+     * Checks if a player has three in a row.
+     * @param player the player to check
+     * @return true if player won
+     */
+    public boolean hasWon(char player) {
+        return isWin(player == 'X' ? xMask : oMask);
+    }
+
+    /**
+     * With only eight lines, testing them all is as cheap as tracing the lines through the stone.
+     */
+    @Override
+    public boolean isWinningMove(int position) {
+        int bit = 1 << position;
+        return isWin((xMask & bit) != 0 ? xMask : oMask);
+    }
+
+    /**
+     * Checks if every cell is occupied.
+     * @return true if board is full
+     */
+    public boolean isFull() {
+        return Integer.bitCount(xMask | oMask) == CELLS;
+    }
+
+    /**
+     * Clears both sides.
+     */
+    public void clear() {
+        xMask = 0;
+        oMask = 0;
+    }
+
+    @Override
+    public int getRows() {
+        return 3;
+    }
+
+    @Override
+    public int getCols() {
+        return 3;
+    }
+
+    @Override
+    public int getWinLength() {
+        return 3;
+    }
+
+    @Override
+    public int getCellCount() {
+        return CELLS;
+    }
+
+    public int getXMask() {
+        return xMask;
+    }
+
+    public int getOMask() {
+        return oMask;
+    }
+
+    /**
+     * Builds the char[] view used by existing callers.
+     * @return board array with 'X', 'O' or '-' per cell
+     */
+    public char[] toCharArray() {
+        return toCharArray(xMask, oMask);
+    }
+
+    /**
+     * Tests a single side's mask against all eight winning lines.
+     * @param mask 9-bit mask for one side
+     * @return true if the mask contains a winning line
+     */
+    public static boolean isWin(int mask) {
+        for (int line : WIN_MASKS) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a char[] view from a pair of side masks.
+     * @param xMask mask for player X
+     * @param oMask mask for player O
+     * @return board array with 'X', 'O' or '-' per cell
+     */
+    public static char[] toCharArray(int xMask, int oMask) {
+        char[] cells = new char[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            int bit = 1 << i;
+            if ((xMask & bit) != 0) {
+                cells[i] = 'X';
+            } else if ((oMask & bit) != 0) {
+                cells[i] = 'O';
+            } else {
+                cells[i] = '-';
+            }
+        }
+        return cells;
+    }
+}
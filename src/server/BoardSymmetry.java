@@ -0,0 +1,133 @@
+// src/server/BoardSymmetry.java
+package server;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rotations and reflections of one board shape, used to give equivalent
+ * positions one canonical key. Square boards have 8 symmetries, other
+ * rectangles 4 (the flips and the half turn).
+ *
+ * A canonical word holds the smallest Zobrist hash over all symmetries in
+ * its high 61 bits and the index of the symmetry that produced it in the
+ * low 3; {@link #keyOf} strips the index for use as a cache key.
+ */
+public final class BoardSymmetry {
+    private static final Map<Long, BoardSymmetry> SHAPES = new ConcurrentHashMap<>();
+
+    private final int cellCount;
+    // perms[s][cell] is where cell goes under symmetry s; inverses undo it
+    private final int[][] perms;
+    private final int[][] inverses;
+    private final long[] zobrist;
+    private final long sideKey;
+
+    private BoardSymmetry(int rows, int cols, int winLength) {
+        this.cellCount = rows * cols;
+        int count = rows == cols ? 8 : 4;
+        this.perms = new int[count][cellCount];
+        this.inverses = new int[count][cellCount];
+        for (int s = 0; s < count; s++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    int target = transform(s, r, c, rows, cols);
+                    perms[s][r * cols + c] = target;
+                    inverses[s][target] = r * cols + c;
+                }
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(((long) rows << 40) ^ ((long) cols << 20) ^ winLength);
+        this.zobrist = new long[cellCount * 2];
+        for (int i = 0; i < zobrist.length; i++) {
+            zobrist[i] = random.nextLong();
+        }
+        this.sideKey = random.nextLong();
+    }
+
+    /**
+     * @return the shared symmetry tables for a board shape
+     */
+    public static BoardSymmetry of(int rows, int cols, int winLength) {
+        long shape = ((long) rows << 32) | ((long) cols << 16) | winLength;
+        return SHAPES.computeIfAbsent(shape, k -> new BoardSymmetry(rows, cols, winLength));
+    }
+
+    /**
+     * Maps (row, col) under symmetry s. 0-3 are identity, horizontal flip,
+     * vertical flip and half turn; 4-7 (square boards only) add a transpose.
+     */
+    private static int transform(int s, int row, int col, int rows, int cols) {
+        int r = row;
+        int c = col;
+        if ((s & 1) != 0) {
+            c = cols - 1 - c;
+        }
+        if ((s & 2) != 0) {
+            r = rows - 1 - r;
+        }
+        if ((s & 4) != 0) {
+            int t = r;
+            r = c;
+            c = t;
+        }
+        return r * cols + c;
+    }
+
+    /**
+     * Finds the canonical form of a position. Allocation-free.
+     * @param cells board cells, 'X', 'O' or '-', row-major
+     * @param side the side to move
+     * @return canonical word; see {@link #keyOf}, {@link #toCanonical} and {@link #toOriginal}
+     */
+    public long canonicalize(char[] cells, char side) {
+        long best = -1L;
+        int bestSymmetry = 0;
+        for (int s = 0; s < perms.length; s++) {
+            int[] perm = perms[s];
+            long hash = side == 'O' ? sideKey : 0;
+            for (int cell = 0; cell < cellCount; cell++) {
+                char mark = cells[cell];
+                if (mark == 'X') {
+                    hash ^= zobrist[perm[cell] * 2];
+                } else if (mark == 'O') {
+                    hash ^= zobrist[perm[cell] * 2 + 1];
+                }
+            }
+            hash &= ~7L;
+            if (s == 0 || Long.compareUnsigned(hash, best) < 0) {
+                best = hash;
+                bestSymmetry = s;
+            }
+        }
+        return best | bestSymmetry;
+    }
+
+    /**
+     * @param word a canonical word
+     * @return the cache key shared by every symmetric version of the position
+     */
+    public static long keyOf(long word) {
+        return word & ~7L;
+    }
+
+    /**
+     * @param word canonical word of the position
+     * @param cell a cell of the original board
+     * @return the same cell on the canonical board
+     */
+    public int toCanonical(long word, int cell) {
+        return perms[(int) (word & 7)][cell];
+    }
+
+    /**
+     * @param word canonical word of the position
+     * @param cell a cell of the canonical board
+     * @return the same cell on the original board
+     */
+    public int toOriginal(long word, int cell) {
+        return inverses[(int) (word & 7)][cell];
+    }
+}
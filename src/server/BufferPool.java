@@ -0,0 +1,56 @@
+// src/server/BufferPool.java
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of fixed-size direct ByteBuffers.
+ * Used for game frames so encoding and decoding never allocate per call.
+ */
+public class BufferPool {
+    private final int bufferBytes;
+    private final int maxPooled;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param bufferBytes capacity of each buffer
+     * @param maxPooled how many idle buffers to keep
+     */
+    public BufferPool(int bufferBytes, int maxPooled) {
+        this.bufferBytes = bufferBytes;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating one if the pool is empty.
+     * @return a buffer with position 0 and limit equal to capacity
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferBytes);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. Buffers beyond the pool bound are dropped.
+     * @param buffer a buffer obtained from {@link #acquire()}
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferBytes) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.add(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+// src/server/DispatchTable.java
+package server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registration-time dispatch tables for {@link ServerDispatcher}.
+ * Every method name gets a process-wide integer opcode, and every service
+ * class gets an array of method handles indexed by opcode, resolved once
+ * the first time an instance of that class is dispatched to. Only the
+ * methods named in {@link #REMOTE_METHODS} are resolved; everything else
+ * a service class has stays out of clients' reach.
+ */
+final class DispatchTable {
+    // Uniform shape of every table entry: (service, params) -> result
+    private static final MethodType INVOKER_TYPE =
+        MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    // Methods clients may call; a service method under any other name is never dispatched
+    static final Set<String> REMOTE_METHODS = Set.of(
+        "makeMove", "play", "getBoard", "getStatus", "getCurrentPlayer", "resetGame",
+        "getSnapshot", "getSnapshotIfChanged", "awaitChange", "setAiPlayer",
+        "createGame");
+
+    private static final Map<String, Integer> OPCODES = new ConcurrentHashMap<>();
+    private static final List<String> METHOD_NAMES = new ArrayList<>();
+
+    private static final ClassValue<Entry[]> TABLES = new ClassValue<Entry[]>() {
+        @Override
+        protected Entry[] computeValue(Class<?> type) {
+            return buildTable(type);
+        }
+    };
+
+    private DispatchTable() {
+    }
+
+    /**
+     * Returns the opcode for a method name, assigning one if needed.
+     * @param methodName the method name
+     * @return the opcode
+     */
+    static int opcode(String methodName) {
+        Integer opcode = OPCODES.get(methodName);
+        return opcode != null ? opcode : assignOpcode(methodName);
+    }
+
+    /**
+     * Returns the opcode for a method name without assigning one.
+     * @param methodName the method name
+     * @return the opcode, or -1 if no service exposes that name
+     */
+    static int lookupOpcode(String methodName) {
+        Integer opcode = OPCODES.get(methodName);
+        return opcode != null ? opcode : -1;
+    }
+
+    /**
+     * @param opcode an assigned opcode
+     * @return the method name, or null if unassigned
+     */
+    static synchronized String methodName(int opcode) {
+        return opcode >= 0 && opcode < METHOD_NAMES.size() ? METHOD_NAMES.get(opcode) : null;
+    }
+
+    /**
+     * Returns the table entry for a service and opcode.
+     * @param service the target service
+     * @param opcode the method opcode
+     * @return the entry, or null if the service has no such method
+     */
+    static Entry lookup(Object service, int opcode) {
+        Entry[] table = TABLES.get(service.getClass());
+        return opcode >= 0 && opcode < table.length ? table[opcode] : null;
+    }
+
+    /**
+     * Resolves the dispatch table for a class ahead of the first call.
+     * @param type the service class
+     */
+    static void prepare(Class<?> type) {
+        TABLES.get(type);
+    }
+
+    private static synchronized int assignOpcode(String methodName) {
+        Integer opcode = OPCODES.get(methodName);
+        if (opcode == null) {
+            opcode = METHOD_NAMES.size();
+            METHOD_NAMES.add(methodName);
+            OPCODES.put(methodName, opcode);
+        }
+        return opcode;
+    }
+
+    /**
+     * Resolves the public instance methods of a class that are named in
+     * {@link #REMOTE_METHODS} to handles.
+     * Overloaded names are skipped since an opcode must denote one method.
+     */
+    private static Entry[] buildTable(Class<?> type) {
+        Map<String, Method> exported = new HashMap<>();
+        List<String> overloaded = new ArrayList<>();
+
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())
+                    || !REMOTE_METHODS.contains(method.getName())) {
+                continue;
+            }
+            if (exported.putIfAbsent(method.getName(), method) != null) {
+                overloaded.add(method.getName());
+            }
+        }
+        for (String name : overloaded) {
+            exported.remove(name);
+            System.out.println("[Dispatcher] Skipping overloaded method '" + type.getSimpleName() + "." + name + "'.");
+        }
+
+        int size = 0;
+        Map<Integer, Entry> entries = new HashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        for (Method method : exported.values()) {
+            MethodHandle handle;
+            try {
+                handle = lookup.unreflect(method);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            int arity = method.getParameterCount();
+            MethodHandle invoker = handle
+                .asSpreader(Object[].class, arity)
+                .asType(INVOKER_TYPE);
+
+            int opcode = opcode(method.getName());
+            entries.put(opcode, new Entry(method.getName(), method.getParameterTypes(), invoker));
+            size = Math.max(size, opcode + 1);
+        }
+
+        Entry[] table = new Entry[size];
+        for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+            table[e.getKey()] = e.getValue();
+        }
+        return table;
+    }
+
+    /**
+     * A resolved service method.
+     */
+    static final class Entry {
+        final String methodName;
+        final int arity;
+        final MethodHandle invoker;
+        private final Class<?>[] parameterTypes;
+
+        Entry(String methodName, Class<?>[] parameterTypes, MethodHandle invoker) {
+            this.methodName = methodName;
+            this.arity = parameterTypes.length;
+            this.invoker = invoker;
+            this.parameterTypes = parameterTypes;
+        }
+
+        /**
+         * Checks arguments against the method's parameter types, with the
+         * unboxing and widening the invoker applies.
+         * @param params exactly {@link #arity} arguments
+         * @return true if the invoker will accept them
+         */
+        boolean accepts(Object[] params) {
+            for (int i = 0; i < arity; i++) {
+                Class<?> type = parameterTypes[i];
+                Object value = params[i];
+                if (type.isPrimitive()) {
+                    if (value == null || !widens(value.getClass(), type)) {
+                        return false;
+                    }
+                } else if (value != null && !type.isInstance(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if a boxed value of the given class unboxes to the primitive type
+         */
+        private static boolean widens(Class<?> boxed, Class<?> primitive) {
+            if (boxed == Boolean.class) {
+                return primitive == boolean.class;
+            }
+            int from = numericRank(boxed);
+            int to = numericRank(primitive);
+            if (from < 0 || to < 0) {
+                return false;
+            }
+            if (boxed == Character.class) {
+                return primitive == char.class || to >= numericRank(int.class);
+            }
+            // char accepts nothing but a Character
+            return primitive != char.class && from <= to;
+        }
+
+        /**
+         * Orders the numeric types by widening: byte, short, char, int, long, float, double.
+         * @return the rank, or -1 if the type is not numeric
+         */
+        private static int numericRank(Class<?> type) {
+            if (type == Byte.class || type == byte.class) {
+                return 0;
+            }
+            if (type == Short.class || type == short.class) {
+                return 1;
+            }
+            if (type == Character.class || type == char.class) {
+                return 2;
+            }
+            if (type == Integer.class || type == int.class) {
+                return 3;
+            }
+            if (type == Long.class || type == long.class) {
+                return 4;
+            }
+            if (type == Float.class || type == float.class) {
+                return 5;
+            }
+            if (type == Double.class || type == double.class) {
+                return 6;
+            }
+            return -1;
+        }
+    }
+}
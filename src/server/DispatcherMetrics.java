@@ -0,0 +1,344 @@
+// src/server/DispatcherMetrics.java
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Call counts, error counts and latency histograms per service and method,
+ * recorded by {@link ServerDispatcher} on every call.
+ *
+ * Recording takes no lock: counts are {@link LongAdder}s and latencies go
+ * into a {@link LatencyHistogram}. Hosted games are counted together under
+ * {@value #HOSTED_GAMES}, and calls to unknown services under
+ * {@value #UNKNOWN_SERVICE}, so the number of series stays small.
+ * Compact game frames from {@link NioServer} are recorded too; long polls
+ * it parks on a game are not, since their time is spent waiting.
+ *
+ * Metrics can be read as JMX MXBeans ({@link #registerMBeans()}) and from
+ * a plain-text endpoint on localhost ({@link #startHttpEndpoint(int)}).
+ */
+public class DispatcherMetrics {
+    public static final String HOSTED_GAMES = GameSessionManager.GAME_PREFIX + "*";
+    public static final String UNKNOWN_SERVICE = "unknown";
+    public static final String JMX_DOMAIN = "tictactoe";
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final int instance = INSTANCES.incrementAndGet();
+    private final Map<String, ServiceMetrics> services = new ConcurrentHashMap<>();
+    private final ServiceMetrics hostedGames = new ServiceMetrics(HOSTED_GAMES);
+    private final ServiceMetrics unknownService = new ServiceMetrics(UNKNOWN_SERVICE);
+    // Set once beans are registered; operations created later register themselves
+    private volatile MBeanServer mbeanServer;
+
+    /**
+     * Readings of one method on one service, as exposed over JMX.
+     */
+    public interface OperationMXBean {
+        String getService();
+
+        String getMethod();
+
+        long getCalls();
+
+        long getErrors();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaxMicros();
+    }
+
+    /**
+     * One method on one service.
+     */
+    public static final class Operation implements OperationMXBean {
+        private final String service;
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Operation(String service, String method) {
+            this.service = service;
+            this.method = method;
+        }
+
+        void record(long startNanos, boolean failed) {
+            latency.recordSince(startNanos);
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        @Override
+        public String getService() {
+            return service;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return latency.getMean() / 1e3;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return latency.getValueAtPercentile(50) / 1e3;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return latency.getValueAtPercentile(99) / 1e3;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return latency.getValueAtPercentile(99.9) / 1e3;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return latency.getMax() / 1e3;
+        }
+    }
+
+    /**
+     * The operations of one service, indexed by opcode.
+     */
+    private final class ServiceMetrics {
+        final String name;
+        volatile Operation[] operations = new Operation[16];
+
+        ServiceMetrics(String name) {
+            this.name = name;
+        }
+
+        Operation operation(int opcode) {
+            Operation[] current = operations;
+            if (opcode < current.length && current[opcode] != null) {
+                return current[opcode];
+            }
+            return create(opcode);
+        }
+
+        private synchronized Operation create(int opcode) {
+            Operation[] current = operations;
+            if (opcode < current.length && current[opcode] != null) {
+                return current[opcode];
+            }
+            Operation[] grown = Arrays.copyOf(current, Math.max(current.length, opcode + 1));
+            String method = DispatchTable.methodName(opcode);
+            Operation operation = new Operation(name, method != null ? method : "op" + opcode);
+            grown[opcode] = operation;
+            operations = grown;
+            register(operation);
+            return operation;
+        }
+    }
+
+    /**
+     * Creates the metrics for a registered service before its first call.
+     * @param serviceName the registered name
+     */
+    void addService(String serviceName) {
+        services.computeIfAbsent(serviceName, ServiceMetrics::new);
+    }
+
+    /**
+     * Records one call.
+     * @param serviceName the name the call was addressed to
+     * @param service what the name resolved to, or null
+     * @param opcode the method called
+     * @param startNanos {@link System#nanoTime()} when the call arrived
+     * @param failed true if the call failed or returned an error
+     */
+    void record(String serviceName, Object service, int opcode, long startNanos, boolean failed) {
+        if (opcode < 0) {
+            return;
+        }
+        ServiceMetrics metrics = services.get(serviceName);
+        if (metrics == null) {
+            metrics = service == null ? unknownService : hostedGames;
+        }
+        metrics.operation(opcode).record(startNanos, failed);
+    }
+
+    /**
+     * Records one call made on a hosted game without going through the dispatcher.
+     * @param opcode the method called
+     * @param startNanos {@link System#nanoTime()} when the call arrived
+     * @param failed true if the game does not exist; counted under {@value #UNKNOWN_SERVICE}
+     */
+    void recordHostedGame(int opcode, long startNanos, boolean failed) {
+        if (opcode < 0) {
+            return;
+        }
+        (failed ? unknownService : hostedGames).operation(opcode).record(startNanos, failed);
+    }
+
+    /**
+     * @return every operation called so far, grouped by service
+     */
+    public List<Operation> getOperations() {
+        List<Operation> result = new ArrayList<>();
+        for (ServiceMetrics metrics : services.values()) {
+            collect(metrics, result);
+        }
+        collect(hostedGames, result);
+        collect(unknownService, result);
+        return result;
+    }
+
+    private static void collect(ServiceMetrics metrics, List<Operation> into) {
+        for (Operation operation : metrics.operations) {
+            if (operation != null) {
+                into.add(operation);
+            }
+        }
+    }
+
+    /**
+     * Registers an MXBean per operation with the platform MBean server, as
+     * {@code tictactoe:type=Dispatcher,instance=N,service=S,method=M}.
+     * Operations first called later are registered then.
+     */
+    public synchronized void registerMBeans() {
+        if (mbeanServer != null) {
+            return;
+        }
+        mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (Operation operation : getOperations()) {
+            register(operation);
+        }
+    }
+
+    private void register(Operation operation) {
+        MBeanServer server = mbeanServer;
+        if (server == null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Dispatcher,instance=" + instance
+                + ",service=" + ObjectName.quote(operation.getService())
+                + ",method=" + operation.getMethod());
+            if (!server.isRegistered(name)) {
+                server.registerMBean(operation, name);
+            }
+        } catch (JMException e) {
+            System.err.println("[Metrics] Could not register MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serves the metrics as text at {@code http://localhost:port/metrics},
+     * in the Prometheus exposition format. Only the loopback address is bound.
+     * @param port the port (0 for any free port)
+     * @return the running endpoint; stop it with {@link HttpServer#stop(int)}
+     * @throws IOException if the port cannot be bound
+     */
+    public HttpServer startHttpEndpoint(int port) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-http");
+            t.setDaemon(true);
+            return t;
+        }));
+        http.start();
+        System.out.println("[Metrics] Serving http://localhost:" + http.getAddress().getPort() + "/metrics");
+        return http;
+    }
+
+    /**
+     * @return every operation's counts and latency quantiles (in seconds) as text
+     */
+    public String scrape() {
+        List<Operation> operations = getOperations();
+        StringBuilder text = new StringBuilder(256 + operations.size() * 512);
+        text.append("# TYPE dispatcher_calls_total counter\n");
+        for (Operation operation : operations) {
+            sample(text, "dispatcher_calls_total", operation, null).append(operation.getCalls()).append('\n');
+        }
+        text.append("# TYPE dispatcher_errors_total counter\n");
+        for (Operation operation : operations) {
+            sample(text, "dispatcher_errors_total", operation, null).append(operation.getErrors()).append('\n');
+        }
+        text.append("# TYPE dispatcher_latency_seconds summary\n");
+        for (Operation operation : operations) {
+            LatencyHistogram latency = operation.getLatency();
+            for (String quantile : new String[] {"0.5", "0.99", "0.999"}) {
+                long nanos = latency.getValueAtPercentile(Double.parseDouble(quantile) * 100);
+                sample(text, "dispatcher_latency_seconds", operation, quantile).append(seconds(nanos)).append('\n');
+            }
+            sample(text, "dispatcher_latency_seconds_count", operation, null)
+                .append(latency.getCount()).append('\n');
+            sample(text, "dispatcher_latency_seconds_max", operation, null)
+                .append(seconds(latency.getMax())).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static StringBuilder sample(StringBuilder text, String metric, Operation operation, String quantile) {
+        text.append(metric).append("{service=\"").append(operation.getService())
+            .append("\",method=\"").append(operation.getMethod()).append('"');
+        if (quantile != null) {
+            text.append(",quantile=\"").append(quantile).append('"');
+        }
+        return text.append("} ");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,58 @@
+// src/server/GameBoard.java
+package server;
+
+/**
+ * Cell storage and win detection for an m x n board where k in a row wins.
+ * Positions are row-major: position = row * cols + col.
+ * Implementations are not thread-safe; the owning game guards them.
+ */
+public interface GameBoard {
+    int getRows();
+
+    int getCols();
+
+    /**
+     * @return stones in a row needed to win
+     */
+    int getWinLength();
+
+    /**
+     * @return rows * cols
+     */
+    int getCellCount();
+
+    /**
+     * Places a player's mark. Caller must check the cell is empty.
+     * @param player 'X' or 'O'
+     * @param position the position
+     */
+    void place(char player, int position);
+
+    /**
+     * @param position the position
+     * @return true if either side holds the cell
+     */
+    boolean isOccupied(int position);
+
+    /**
+     * Checks only the lines through one stone, so the cost does not grow with the board.
+     * @param position a position holding the stone just placed
+     * @return true if that stone completes a winning line for its owner
+     */
+    boolean isWinningMove(int position);
+
+    /**
+     * @return true if every cell is occupied
+     */
+    boolean isFull();
+
+    /**
+     * Clears both sides.
+     */
+    void clear();
+
+    /**
+     * @return board array with 'X', 'O' or '-' per cell
+     */
+    char[] toCharArray();
+}
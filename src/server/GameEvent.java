@@ -0,0 +1,54 @@
+// src/server/GameEvent.java
+package server;
+
+/**
+ * A state change pushed to {@link GameListener}s.
+ * Events from different threads may arrive out of order; use the
+ * snapshot version to discard stale ones.
+ */
+public final class GameEvent {
+    public enum Type {
+        MOVE,
+        GAME_OVER,
+        RESET
+    }
+
+    private final Type type;
+    private final char player;
+    private final int position;
+    private final GameSnapshot snapshot;
+
+    /**
+     * @param type what happened
+     * @param player the player who moved, or 0 for a reset
+     * @param position the position played, or -1 for a reset
+     * @param snapshot game state right after the change
+     */
+    public GameEvent(Type type, char player, int position, GameSnapshot snapshot) {
+        this.type = type;
+        this.player = player;
+        this.position = position;
+        this.snapshot = snapshot;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public char getPlayer() {
+        return player;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return "GameEvent[" + type + ", player=" + player + ", position=" + position + ", " + snapshot + "]";
+    }
+}
@@ -0,0 +1,15 @@
+// src/server/GameListener.java
+package server;
+
+/**
+ * Receives game state changes pushed by a {@link GameService}.
+ * Called on the thread that changed the game, after the new state is
+ * published; implementations should hand work off quickly.
+ */
+public interface GameListener {
+    /**
+     * Called after a move is accepted, the game ends, or the game is reset.
+     * @param event the change, including a snapshot of the new state
+     */
+    void onGameEvent(GameEvent event);
+}
@@ -0,0 +1,33 @@
+// src/server/GameLobby.java
+package server;
+
+/**
+ * Dispatcher-facing service that creates hosted games, so clients in
+ * other processes can pick a board size per game.
+ * Registered by {@link Server} as {@value #SERVICE_NAME}.
+ */
+public class GameLobby {
+    public static final String SERVICE_NAME = "GameLobby";
+
+    private final GameSessionManager sessionManager;
+
+    public GameLobby(GameSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * Creates a game on an m x n board where k in a row wins.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @return service name of the new game, or an error message
+     */
+    public String createGame(int rows, int cols, int winLength) {
+        try {
+            long gameId = sessionManager.createGame(rows, cols, winLength);
+            return GameSessionManager.serviceName(gameId);
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// src/server/GameOutcome.java
+package server;
+
+/**
+ * How a game stands: still running, won by one side, or drawn.
+ * The ordinal is the outcome stored in a {@link GameProtocol} packed state.
+ */
+public enum GameOutcome {
+    IN_PROGRESS("IN_PROGRESS"),
+    X_WINS("Player X wins!"),
+    O_WINS("Player O wins!"),
+    DRAW("Draw!");
+
+    private static final GameOutcome[] BY_CODE = values();
+
+    private final String statusText;
+
+    GameOutcome(String statusText) {
+        this.statusText = statusText;
+    }
+
+    /**
+     * @return the status string games report for this outcome
+     */
+    public String statusText() {
+        return statusText;
+    }
+
+    /**
+     * @param player 'X' or 'O'
+     * @return the outcome of that player winning
+     */
+    public static GameOutcome winFor(char player) {
+        return player == 'X' ? X_WINS : O_WINS;
+    }
+
+    /**
+     * @param code outcome bits from a packed state
+     * @return the matching outcome
+     */
+    public static GameOutcome ofCode(int code) {
+        return BY_CODE[code];
+    }
+
+    /**
+     * Maps a status string back to its outcome.
+     * @param status a status string as returned by getStatus()
+     * @return the outcome; unrecognised strings count as in progress
+     */
+    public static GameOutcome ofStatus(String status) {
+        for (GameOutcome outcome : BY_CODE) {
+            if (outcome.statusText.equals(status)) {
+                return outcome;
+            }
+        }
+        return IN_PROGRESS;
+    }
+}
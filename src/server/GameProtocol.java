@@ -0,0 +1,328 @@
+// src/server/GameProtocol.java
+package server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary frames for the game calls.
+ *
+ * Call body (16 bytes): int request id, byte type, byte opcode, byte player,
+ * byte position, long game id.
+ * Conditional reads append a long last-seen version and an int timeout in
+ * milliseconds (28 bytes).
+ * Result body (18 bytes): int request id, byte type, byte status code,
+ * int packed state, long state version.
+ *
+ * The packed state holds the whole game: X mask in bits 0-8, O mask in
+ * bits 9-17, side to move in bit 18 (set for O) and the outcome in bits 19-20.
+ * Text such as "Move accepted. Next player: O" is rendered on the client.
+ * Only 3x3 games fit; calls on larger boards are answered with
+ * {@link #NOT_COMPACT} and must be resent with the general encoding.
+ */
+public class GameProtocol {
+    public static final byte TYPE_GAME_CALL = 3;
+    public static final byte TYPE_GAME_RESULT = 4;
+
+    // Body sizes exclude the 4-byte length prefix
+    public static final int CALL_BODY_BYTES = 16;
+    public static final int CONDITIONAL_CALL_BODY_BYTES = 28;
+    public static final int RESULT_BODY_BYTES = 18;
+    public static final int BUFFER_BYTES = 32;
+
+    public static final byte OP_MAKE_MOVE = 1;
+    public static final byte OP_GET_BOARD = 2;
+    public static final byte OP_GET_STATUS = 3;
+    public static final byte OP_GET_CURRENT_PLAYER = 4;
+    public static final byte OP_RESET_GAME = 5;
+    public static final byte OP_GET_SNAPSHOT = 6;
+    public static final byte OP_GET_SNAPSHOT_IF_CHANGED = 7;
+    public static final byte OP_AWAIT_CHANGE = 8;
+    public static final byte OP_PLAY = 9;
+
+    // Dispatcher opcode of each op, for metrics; index 0 is unassigned
+    private static final int[] DISPATCH_OPCODES = {
+        -1,
+        ServerDispatcher.opcode("makeMove"),
+        ServerDispatcher.opcode("getBoard"),
+        ServerDispatcher.opcode("getStatus"),
+        ServerDispatcher.opcode("getCurrentPlayer"),
+        ServerDispatcher.opcode("resetGame"),
+        ServerDispatcher.opcode("getSnapshot"),
+        ServerDispatcher.opcode("getSnapshotIfChanged"),
+        ServerDispatcher.opcode("awaitChange"),
+        ServerDispatcher.opcode("play"),
+    };
+
+    // Status codes; 0-6 are the MoveResult ordinals
+    public static final byte OK = 0;
+    public static final byte NOT_YOUR_TURN = 1;
+    public static final byte INVALID_POSITION = 2;
+    public static final byte OCCUPIED = 3;
+    public static final byte GAME_OVER = 4;
+    public static final byte WIN = 5;
+    public static final byte DRAW = 6;
+    public static final byte NO_SUCH_GAME = 7;
+    public static final byte UNKNOWN_OP = 8;
+    public static final byte NOT_MODIFIED = 9;
+    public static final byte NOT_COMPACT = 10;
+
+    // Outcomes in the packed state; these are the GameOutcome ordinals
+    public static final int IN_PROGRESS = 0;
+    public static final int X_WINS = 1;
+    public static final int O_WINS = 2;
+    public static final int DRAWN = 3;
+
+    // Bits of a state word below the version (see GameService#getStateWord)
+    public static final int STATE_BITS = 21;
+
+    private static final int SIDE_BIT = 1 << 18;
+    private static final int OUTCOME_SHIFT = 19;
+
+    private static final int MAKE_MOVE = ServerDispatcher.opcode("makeMove");
+    private static final int GET_BOARD = ServerDispatcher.opcode("getBoard");
+    private static final int GET_STATUS = ServerDispatcher.opcode("getStatus");
+    private static final int GET_CURRENT_PLAYER = ServerDispatcher.opcode("getCurrentPlayer");
+    private static final int RESET_GAME = ServerDispatcher.opcode("resetGame");
+    private static final int GET_SNAPSHOT = ServerDispatcher.opcode("getSnapshot");
+    private static final int GET_SNAPSHOT_IF_CHANGED = ServerDispatcher.opcode("getSnapshotIfChanged");
+    private static final int AWAIT_CHANGE = ServerDispatcher.opcode("awaitChange");
+    private static final int PLAY = ServerDispatcher.opcode("play");
+
+    private GameProtocol() {
+    }
+
+    /**
+     * Maps a dispatcher opcode to a game frame opcode.
+     * @param opcode dispatcher opcode
+     * @return game frame opcode, or -1 if the call has no compact form
+     */
+    public static int toGameOp(int opcode) {
+        if (opcode == MAKE_MOVE) return OP_MAKE_MOVE;
+        if (opcode == GET_BOARD) return OP_GET_BOARD;
+        if (opcode == GET_STATUS) return OP_GET_STATUS;
+        if (opcode == GET_CURRENT_PLAYER) return OP_GET_CURRENT_PLAYER;
+        if (opcode == RESET_GAME) return OP_RESET_GAME;
+        if (opcode == GET_SNAPSHOT) return OP_GET_SNAPSHOT;
+        if (opcode == GET_SNAPSHOT_IF_CHANGED) return OP_GET_SNAPSHOT_IF_CHANGED;
+        if (opcode == AWAIT_CHANGE) return OP_AWAIT_CHANGE;
+        if (opcode == PLAY) return OP_PLAY;
+        return -1;
+    }
+
+    /**
+     * Writes a complete call frame and flips the buffer for writing.
+     * @param buffer buffer of at least {@link #BUFFER_BYTES}
+     */
+    public static void encodeCall(ByteBuffer buffer, int requestId, int op, char player, int position, long gameId) {
+        buffer.clear();
+        buffer.putInt(CALL_BODY_BYTES);
+        buffer.putInt(requestId);
+        buffer.put(TYPE_GAME_CALL);
+        buffer.put((byte) op);
+        // Out-of-range values map to values the service also rejects
+        buffer.put(player > 0xFF ? 0 : (byte) player);
+        buffer.put(position < Byte.MIN_VALUE || position > Byte.MAX_VALUE ? -1 : (byte) position);
+        buffer.putLong(gameId);
+        buffer.flip();
+    }
+
+    /**
+     * Writes a complete conditional read frame and flips the buffer for writing.
+     * @param buffer buffer of at least {@link #BUFFER_BYTES}
+     * @param sinceVersion the last version the caller has seen
+     * @param timeoutMillis how long the server may hold the call; 0 answers at once
+     */
+    public static void encodeConditionalCall(ByteBuffer buffer, int requestId, int op, long gameId,
+                                             long sinceVersion, int timeoutMillis) {
+        buffer.clear();
+        buffer.putInt(CONDITIONAL_CALL_BODY_BYTES);
+        buffer.putInt(requestId);
+        buffer.put(TYPE_GAME_CALL);
+        buffer.put((byte) op);
+        buffer.put((byte) 0);
+        buffer.put((byte) 0);
+        buffer.putLong(gameId);
+        buffer.putLong(sinceVersion);
+        buffer.putInt(timeoutMillis);
+        buffer.flip();
+    }
+
+    /**
+     * Writes a complete result frame and flips the buffer for writing.
+     * @param buffer buffer of at least {@link #BUFFER_BYTES}
+     */
+    public static void encodeResult(ByteBuffer buffer, int requestId, int status, int state, long version) {
+        buffer.clear();
+        buffer.putInt(RESULT_BODY_BYTES);
+        buffer.putInt(requestId);
+        buffer.put(TYPE_GAME_RESULT);
+        buffer.put((byte) status);
+        buffer.putInt(state);
+        buffer.putLong(version);
+        buffer.flip();
+    }
+
+    /**
+     * @param op a compact op code
+     * @return the dispatcher opcode of the same method, or -1 if the op is unknown
+     */
+    static int dispatchOpcode(int op) {
+        return op > 0 && op < DISPATCH_OPCODES.length ? DISPATCH_OPCODES[op] : -1;
+    }
+
+    /**
+     * Runs a game call against one game and encodes the result frame.
+     * @param reply buffer receiving the result frame
+     * @param game the target game, or null if it does not exist
+     */
+    static void execute(ByteBuffer reply, int requestId, GameService game, int op, char player, int position) {
+        if (game == null) {
+            encodeResult(reply, requestId, NO_SUCH_GAME, 0, 0);
+            return;
+        }
+        if (!game.isClassicBoard()) {
+            encodeResult(reply, requestId, NOT_COMPACT, 0, 0);
+            return;
+        }
+
+        if (op == OP_MAKE_MOVE || op == OP_PLAY) {
+            // The move word carries the state right after the move
+            long moveWord = game.play(player, position);
+            long word = MoveResult.stateWord(moveWord);
+            encodeResult(reply, requestId, MoveResult.of(moveWord).ordinal(), stateOf(word), versionOf(word));
+            return;
+        }
+
+        switch (op) {
+            case OP_RESET_GAME:
+                game.resetGame();
+                break;
+            case OP_GET_BOARD:
+            case OP_GET_STATUS:
+            case OP_GET_CURRENT_PLAYER:
+            case OP_GET_SNAPSHOT:
+                break;
+            default:
+                encodeResult(reply, requestId, UNKNOWN_OP, 0, 0);
+                return;
+        }
+        // One read, so state and version always match each other
+        long word = game.getStateWord();
+        encodeResult(reply, requestId, OK, stateOf(word), versionOf(word));
+    }
+
+    /**
+     * Answers a conditional read without blocking: the full state if the
+     * version moved past sinceVersion, otherwise {@link #NOT_MODIFIED}.
+     * @param reply buffer receiving the result frame
+     * @param game the target game, or null if it does not exist
+     */
+    static void executeConditional(ByteBuffer reply, int requestId, GameService game, long sinceVersion) {
+        if (game == null) {
+            encodeResult(reply, requestId, NO_SUCH_GAME, 0, 0);
+            return;
+        }
+        if (!game.isClassicBoard()) {
+            encodeResult(reply, requestId, NOT_COMPACT, 0, 0);
+            return;
+        }
+
+        long word = game.getStateWord();
+        long version = versionOf(word);
+        if (version == sinceVersion) {
+            encodeResult(reply, requestId, NOT_MODIFIED, 0, version);
+        } else {
+            encodeResult(reply, requestId, OK, stateOf(word), version);
+        }
+    }
+
+    /**
+     * Rebuilds the value the in-process dispatcher would have returned.
+     * @param op game frame opcode
+     * @param status status code from the result frame
+     * @param state packed state from the result frame
+     * @param version state version from the result frame
+     * @param serviceName service name, used in error text
+     * @return the call's result as GameServiceProxy callers expect it
+     */
+    public static Object render(int op, int status, int state, long version, String serviceName) {
+        if (status == NO_SUCH_GAME) {
+            return "Error: Service '" + serviceName + "' not found.";
+        }
+        if (status == UNKNOWN_OP) {
+            return "Error: Unknown method.";
+        }
+
+        switch (op) {
+            case OP_MAKE_MOVE:
+                return MoveResult.ofCode(status).describe(state);
+            case OP_PLAY:
+                return MoveResult.ofCode(status).with(packWord(state, version));
+            case OP_GET_SNAPSHOT_IF_CHANGED:
+            case OP_AWAIT_CHANGE:
+                if (status == NOT_MODIFIED) {
+                    return null;
+                }
+                return GameSnapshot.ofOwned(BitBoard.toCharArray(xMask(state), oMask(state)),
+                    currentPlayer(state), GameOutcome.ofCode(outcome(state)), version);
+            case OP_GET_BOARD:
+                return BitBoard.toCharArray(xMask(state), oMask(state));
+            case OP_GET_STATUS:
+                return statusText(outcome(state));
+            case OP_GET_CURRENT_PLAYER:
+                return currentPlayer(state);
+            case OP_GET_SNAPSHOT:
+                return GameSnapshot.ofOwned(BitBoard.toCharArray(xMask(state), oMask(state)),
+                    currentPlayer(state), GameOutcome.ofCode(outcome(state)), version);
+            default:
+                return "Game reset successfully.";
+        }
+    }
+
+    /**
+     * Packs a full game state into an int.
+     */
+    static int packState(int xMask, int oMask, char currentPlayer, int outcome) {
+        return xMask | (oMask << BitBoard.CELLS) | (currentPlayer == 'O' ? SIDE_BIT : 0)
+            | (outcome << OUTCOME_SHIFT);
+    }
+
+    /**
+     * Combines a packed state and a version into a state word.
+     */
+    static long packWord(int state, long version) {
+        return (version << STATE_BITS) | state;
+    }
+
+    public static int stateOf(long word) {
+        return (int) (word & ((1L << STATE_BITS) - 1));
+    }
+
+    public static long versionOf(long word) {
+        return word >>> STATE_BITS;
+    }
+
+    public static int xMask(int state) {
+        return state & BitBoard.FULL_MASK;
+    }
+
+    public static int oMask(int state) {
+        return (state >>> BitBoard.CELLS) & BitBoard.FULL_MASK;
+    }
+
+    public static char currentPlayer(int state) {
+        return (state & SIDE_BIT) != 0 ? 'O' : 'X';
+    }
+
+    public static int outcome(int state) {
+        return (state >>> OUTCOME_SHIFT) & 3;
+    }
+
+    /**
+     * @param outcome an outcome constant
+     * @return the status string a GameService reports for it
+     */
+    public static String statusText(int outcome) {
+        return GameOutcome.ofCode(outcome).statusText();
+    }
+}
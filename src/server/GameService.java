@@ -0,0 +1,121 @@
+// src/server/GameService.java
+package server;
+
+/**
+ * Operations every Tic-Tac-Toe game implementation provides.
+ * {@link TicTacToeService} guards its state with a {@code ReentrantLock};
+ * {@link LockFreeTicTacToeService} keeps it in one atomic word.
+ * Both report the same messages and statuses for the same calls.
+ */
+public interface GameService {
+    /**
+     * Makes a move on the board.
+     * @param player the player making the move
+     * @param position the position (0 to rows * cols - 1)
+     * @return result message
+     */
+    String makeMove(char player, int position);
+
+    /**
+     * Makes a move and reports the result without building any text.
+     * @param player the player making the move
+     * @param position the position (0 to rows * cols - 1)
+     * @return move word: the {@link MoveResult} plus the state word right after
+     *         the call (see {@link MoveResult#of} and {@link MoveResult#stateWord})
+     */
+    long play(char player, int position);
+
+    /**
+     * @return copy of the board array
+     */
+    char[] getBoard();
+
+    /**
+     * @return board, current player, status and version read together
+     */
+    GameSnapshot getSnapshot();
+
+    /**
+     * @param sinceVersion the last version the caller rendered
+     * @return snapshot, or null if the version is still sinceVersion
+     */
+    GameSnapshot getSnapshotIfChanged(long sinceVersion);
+
+    /**
+     * Blocks until the state moves past a version or the timeout passes.
+     * @param sinceVersion the last version the caller rendered
+     * @param timeoutMillis how long to wait, capped at {@link TicTacToeService#MAX_AWAIT_MILLIS}
+     * @return snapshot, or null if nothing changed in time
+     */
+    GameSnapshot awaitChange(long sinceVersion, long timeoutMillis);
+
+    /**
+     * @return version, bumped by every accepted move and reset
+     */
+    long getVersion();
+
+    /**
+     * @return status string
+     */
+    String getStatus();
+
+    /**
+     * @return typed outcome behind {@link #getStatus()}
+     */
+    GameOutcome getOutcome();
+
+    /**
+     * @return current player character
+     */
+    char getCurrentPlayer();
+
+    int getRows();
+
+    int getCols();
+
+    /**
+     * @return stones in a row needed to win
+     */
+    int getWinLength();
+
+    /**
+     * @return true for the 3x3, three-in-a-row game that fits a packed state
+     */
+    default boolean isClassicBoard() {
+        return getRows() == 3 && getCols() == 3 && getWinLength() == 3;
+    }
+
+    /**
+     * Gets packed state and version from one consistent read.
+     * On boards other than 3x3 both masks are zero; turn, outcome and version are valid.
+     * @return {@link GameProtocol} packed state in the low bits, version above
+     *         (see {@link GameProtocol#stateOf} and {@link GameProtocol#versionOf})
+     */
+    long getStateWord();
+
+    /**
+     * Resets the game to initial state.
+     * @return confirmation message
+     */
+    String resetGame();
+
+    /**
+     * Lets the built-in AI ({@link AiPlayer}) move for one side: perfect play
+     * on 3x3, a time-bounded search on larger boards.
+     * @param side 'X' or 'O', or '-' to turn the AI off
+     * @return confirmation message
+     */
+    String setAiPlayer(char side);
+
+    /**
+     * Registers a listener for move, game-over and reset events.
+     * @param listener the listener
+     */
+    void addGameListener(GameListener listener);
+
+    /**
+     * Removes a previously registered listener.
+     * @param listener the listener
+     */
+    void removeGameListener(GameListener listener);
+}
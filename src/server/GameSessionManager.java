@@ -0,0 +1,329 @@
+// src/server/GameSessionManager.java
+package server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Creates, looks up and expires independent game instances by game ID.
+ * Games live in a concurrent map so lookups never take a global lock;
+ * a background reaper removes finished and idle games.
+ * With a {@link MoveJournal} open, game creation and removal are journaled
+ * along with the moves of every {@link TicTacToeService} game.
+ */
+public class GameSessionManager {
+    public static final String GAME_PREFIX = "TicTacToeGame-";
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long DEFAULT_FINISHED_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int INITIAL_CAPACITY = 1 << 17;
+
+    // Last-access timestamps are only rewritten when they are this stale,
+    // so hot games do not write to the session on every call.
+    private static final long TOUCH_GRANULARITY_MILLIS = 1000;
+
+    private final Supplier<? extends GameService> gameFactory;
+    private final Map<Long, GameSession> sessions;
+    private final AtomicLong nextGameId;
+    private final long idleTimeoutMillis;
+    private final long finishedTimeoutMillis;
+    private final ScheduledExecutorService reaper;
+    private volatile MoveJournal journal;
+
+    public GameSessionManager() {
+        this(TicTacToeService::new);
+    }
+
+    /**
+     * @param gameFactory creates the game behind each new session
+     */
+    public GameSessionManager(Supplier<? extends GameService> gameFactory) {
+        this(gameFactory, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_FINISHED_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param gameFactory creates the game behind each new session
+     * @param idleTimeoutMillis how long an untouched game may live
+     * @param finishedTimeoutMillis how long a finished game is kept for late readers
+     */
+    public GameSessionManager(Supplier<? extends GameService> gameFactory,
+                              long idleTimeoutMillis, long finishedTimeoutMillis) {
+        this.gameFactory = gameFactory;
+        this.sessions = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.nextGameId = new AtomicLong(1);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.finishedTimeoutMillis = finishedTimeoutMillis;
+
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "game-session-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMillis = Math.max(1, Math.min(idleTimeoutMillis, finishedTimeoutMillis) / 2);
+        reaper.scheduleWithFixedDelay(this::expireSessions, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new game instance.
+     * @return the new game ID
+     */
+    public long createGame() {
+        long gameId = nextGameId.getAndIncrement();
+        GameService game = gameFactory.get();
+        journal(gameId, game);
+        sessions.put(gameId, new GameSession(game));
+        return gameId;
+    }
+
+    /**
+     * Creates a new game on an m x n board where k in a row wins.
+     * 3x3 games come from the manager's factory; other sizes always use
+     * {@link TicTacToeService}, as only 3x3 fits the lock-free state word.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @return the new game ID
+     * @throws IllegalArgumentException if the sizes are out of range
+     */
+    public long createGame(int rows, int cols, int winLength) {
+        if (rows == 3 && cols == 3 && winLength == 3) {
+            return createGame();
+        }
+        GameService game = new TicTacToeService(rows, cols, winLength);
+        long gameId = nextGameId.getAndIncrement();
+        journal(gameId, game);
+        sessions.put(gameId, new GameSession(game));
+        return gameId;
+    }
+
+    /**
+     * Looks up a game and marks it as recently used.
+     * @param gameId the game ID
+     * @return the game instance, or null if unknown or expired
+     */
+    public GameService getGame(long gameId) {
+        GameSession session = sessions.get(gameId);
+        if (session == null) {
+            return null;
+        }
+        session.touch();
+        return session.service;
+    }
+
+    /**
+     * Checks whether a game is hosted without marking it as used, so
+     * housekeeping does not keep idle games alive.
+     * @param gameId the game ID
+     * @return true if the game exists and has not expired
+     */
+    public boolean hasGame(long gameId) {
+        return sessions.containsKey(gameId);
+    }
+
+    /**
+     * Removes a game immediately.
+     * @param gameId the game ID
+     * @return true if the game existed
+     */
+    public boolean removeGame(long gameId) {
+        if (sessions.remove(gameId) == null) {
+            return false;
+        }
+        journalRemoval(gameId);
+        return true;
+    }
+
+    /**
+     * @return number of live games
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes games that are finished or idle past their timeout.
+     * Runs periodically on the reaper thread; may also be called directly.
+     * @return number of games removed
+     */
+    public int expireSessions() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        Iterator<Map.Entry<Long, GameSession>> it = sessions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, GameSession> entry = it.next();
+            GameSession session = entry.getValue();
+            long idle = now - session.lastAccess;
+
+            if (idle > idleTimeoutMillis
+                    || (idle > finishedTimeoutMillis && session.service.getOutcome() != GameOutcome.IN_PROGRESS)) {
+                it.remove();
+                journalRemoval(entry.getKey());
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            System.out.println("[Sessions] Expired " + removed + " game(s), " + sessions.size() + " live.");
+        }
+        return removed;
+    }
+
+    /**
+     * Rebuilds the games recorded in a journal, AI opponents included, and
+     * journals every later change. Call before the games are used. Recovered games are
+     * {@link TicTacToeService}s whatever the factory makes; games from a
+     * factory of another kind are not journaled.
+     * @param file the journal; created if missing
+     * @param policy when records are forced to disk
+     * @param syncIntervalMillis force interval for {@link MoveJournal.SyncPolicy#INTERVAL}
+     * @param defaultGame the game journaled under {@link MoveJournal#DEFAULT_GAME_ID}
+     * @return the open journal
+     * @throws IOException if the journal cannot be read or written
+     */
+    public MoveJournal openJournal(Path file, MoveJournal.SyncPolicy policy, long syncIntervalMillis,
+                                   TicTacToeService defaultGame) throws IOException {
+        Map<Long, TicTacToeService> games = new HashMap<>();
+        Map<Long, Character> aiSides = new HashMap<>();
+        MoveJournal opened = MoveJournal.open(file, policy, syncIntervalMillis, new MoveJournal.Replay() {
+            @Override
+            public void create(long gameId, int rows, int cols, int winLength) {
+                games.put(gameId, gameId == MoveJournal.DEFAULT_GAME_ID
+                    ? defaultGame : new TicTacToeService(rows, cols, winLength));
+            }
+
+            @Override
+            public void move(long gameId, char player, int position) {
+                games.get(gameId).replayMove(player, position);
+            }
+
+            @Override
+            public void reset(long gameId) {
+                games.get(gameId).replayReset();
+            }
+
+            @Override
+            public void aiPlayer(long gameId, char side) {
+                // Installed after replay: an AI attached now would move on a half-replayed board
+                if (side == 'X' || side == 'O') {
+                    aiSides.put(gameId, side);
+                } else {
+                    aiSides.remove(gameId);
+                }
+            }
+        });
+
+        if (!games.containsKey(MoveJournal.DEFAULT_GAME_ID)) {
+            opened.appendCreate(MoveJournal.DEFAULT_GAME_ID, defaultGame.getRows(), defaultGame.getCols(),
+                defaultGame.getWinLength());
+            defaultGame.attachJournal(opened, MoveJournal.DEFAULT_GAME_ID);
+        }
+        long lastId = opened.getRecovery().getLastGameId();
+        for (Map.Entry<Long, TicTacToeService> entry : games.entrySet()) {
+            long gameId = entry.getKey();
+            entry.getValue().attachJournal(opened, gameId);
+            if (gameId != MoveJournal.DEFAULT_GAME_ID) {
+                sessions.put(gameId, new GameSession(entry.getValue()));
+            }
+        }
+        // Journal attached first, so a move the AI makes straight away is journaled too
+        for (Map.Entry<Long, Character> entry : aiSides.entrySet()) {
+            games.get(entry.getKey()).restoreAiPlayer(entry.getValue());
+        }
+        nextGameId.accumulateAndGet(lastId + 1, Math::max);
+        journal = opened;
+        return opened;
+    }
+
+    /**
+     * Journals a new game before it is published, so its moves follow its creation.
+     */
+    private void journal(long gameId, GameService game) {
+        MoveJournal current = journal;
+        if (current != null && game instanceof TicTacToeService) {
+            TicTacToeService service = (TicTacToeService) game;
+            current.appendCreate(gameId, service.getRows(), service.getCols(), service.getWinLength());
+            service.attachJournal(current, gameId);
+        }
+    }
+
+    private void journalRemoval(long gameId) {
+        MoveJournal current = journal;
+        if (current != null) {
+            try {
+                current.appendRemove(gameId);
+            } catch (RuntimeException e) {
+                // The game is gone either way; recovery would only bring it back
+                System.err.println("[Sessions] Could not journal removal of game " + gameId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the background reaper.
+     */
+    public void shutdown() {
+        reaper.shutdownNow();
+    }
+
+    /**
+     * Builds the dispatcher service name for a game.
+     * @param gameId the game ID
+     * @return service name such as "TicTacToeGame-42"
+     */
+    public static String serviceName(long gameId) {
+        return GAME_PREFIX + gameId;
+    }
+
+    /**
+     * Extracts the game ID from a service name built by {@link #serviceName(long)}.
+     * @param serviceName the service name
+     * @return the game ID, or -1 if the name does not denote a game
+     */
+    public static long parseGameId(String serviceName) {
+        int length = serviceName.length();
+        int start = GAME_PREFIX.length();
+        if (length <= start || length - start > 18 || !serviceName.startsWith(GAME_PREFIX)) {
+            return -1;
+        }
+
+        long gameId = 0;
+        for (int i = start; i < length; i++) {
+            char c = serviceName.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            gameId = gameId * 10 + (c - '0');
+        }
+        return gameId;
+    }
+
+    /**
+     * A hosted game plus its last-access time.
+     */
+    private static final class GameSession {
+        final GameService service;
+        volatile long lastAccess;
+
+        GameSession(GameService service) {
+            this.service = service;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        void touch() {
+            long now = System.currentTimeMillis();
+            if (now - lastAccess > TOUCH_GRANULARITY_MILLIS) {
+                lastAccess = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+// src/server/GameSnapshot.java
+package server;
+
+/**
+ * Immutable view of a game at one point in time.
+ * Board, current player, status and version are always read together,
+ * so a snapshot never mixes state from before and after a move.
+ */
+public final class GameSnapshot {
+    private final char[] board;
+    private final char currentPlayer;
+    private final GameOutcome outcome;
+    private final long version;
+
+    /**
+     * @param board board cells ('X', 'O' or '-'); copied
+     * @param currentPlayer the player to move
+     * @param status the game status string
+     * @param version state version, bumped by every accepted move and reset
+     */
+    public GameSnapshot(char[] board, char currentPlayer, String status, long version) {
+        this(board.clone(), currentPlayer, GameOutcome.ofStatus(status), version);
+    }
+
+    private GameSnapshot(char[] board, char currentPlayer, GameOutcome outcome, long version) {
+        this.board = board;
+        this.currentPlayer = currentPlayer;
+        this.outcome = outcome;
+        this.version = version;
+    }
+
+    /**
+     * Builds a snapshot that takes ownership of a freshly built board array.
+     */
+    static GameSnapshot ofOwned(char[] board, char currentPlayer, GameOutcome outcome, long version) {
+        return new GameSnapshot(board, currentPlayer, outcome, version);
+    }
+
+    /**
+     * @return copy of the board array
+     */
+    public char[] getBoard() {
+        return board.clone();
+    }
+
+    /**
+     * Reads one cell without copying the board.
+     * @param position the position
+     * @return 'X', 'O' or '-'
+     */
+    public char getCell(int position) {
+        return board[position];
+    }
+
+    public int getCellCount() {
+        return board.length;
+    }
+
+    public char getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public String getStatus() {
+        return outcome.statusText();
+    }
+
+    /**
+     * @return the typed outcome behind {@link #getStatus()}
+     */
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true while no one has won and the board is not full
+     */
+    public boolean isInProgress() {
+        return outcome == GameOutcome.IN_PROGRESS;
+    }
+
+    @Override
+    public String toString() {
+        return "GameSnapshot[" + new String(board) + ", turn=" + currentPlayer
+            + ", status=" + outcome.statusText() + ", version=" + version + "]";
+    }
+}
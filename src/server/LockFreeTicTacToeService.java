@@ -0,0 +1,265 @@
+// src/server/LockFreeTicTacToeService.java
+package server;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tic-Tac-Toe game whose whole state lives in one atomic long: both 9-bit
+ * masks, side to move, outcome and version, in the {@link GameProtocol}
+ * state word layout. Reads are a single volatile load; makeMove and
+ * resetGame validate against a loaded word and publish with a CAS.
+ * Messages and statuses are the same as {@link TicTacToeService}.
+ * Only the classic 3x3 board fits in the word.
+ */
+public class LockFreeTicTacToeService implements GameService {
+    private static final AsyncLogger LOG = AsyncLogger.shared();
+
+    // Zero is the initial state: empty board, X to move, in progress, version 0
+    private final AtomicLong word = new AtomicLong();
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<AiPlayer> aiPlayer = new AtomicReference<>();
+
+    // awaitChange parks on this condition; movers only take its lock while someone waits.
+    // A lock rather than a monitor, so waiting virtual threads do not pin their carrier.
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final Condition changed = changeLock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    @Override
+    public String makeMove(char player, int position) {
+        return MoveResult.describe(play(player, position));
+    }
+
+    /**
+     * Makes a move and reports the result without building any text.
+     * Listeners are notified after the new state is published; with several
+     * concurrent movers, events may arrive out of version order.
+     * @param player the player making the move
+     * @param position the position (0-8)
+     * @return move word: the {@link MoveResult} plus the state right after the call
+     */
+    @Override
+    public long play(char player, int position) {
+        while (true) {
+            long current = word.get();
+            int state = GameProtocol.stateOf(current);
+            int outcome = GameProtocol.outcome(state);
+            char currentPlayer = GameProtocol.currentPlayer(state);
+
+            if (outcome != GameProtocol.IN_PROGRESS) {
+                return MoveResult.GAME_OVER.with(current);
+            }
+            if (player != currentPlayer) {
+                return MoveResult.NOT_YOUR_TURN.with(current);
+            }
+            if (position < 0 || position > 8) {
+                return MoveResult.INVALID_POSITION.with(current);
+            }
+
+            int xMask = GameProtocol.xMask(state);
+            int oMask = GameProtocol.oMask(state);
+            int bit = 1 << position;
+            if (((xMask | oMask) & bit) != 0) {
+                return MoveResult.OCCUPIED.with(current);
+            }
+
+            int moverMask;
+            if (player == 'X') {
+                xMask |= bit;
+                moverMask = xMask;
+            } else {
+                oMask |= bit;
+                moverMask = oMask;
+            }
+
+            MoveResult result = MoveResult.ACCEPTED;
+            char nextPlayer = currentPlayer;
+            if (BitBoard.isWin(moverMask)) {
+                outcome = player == 'X' ? GameProtocol.X_WINS : GameProtocol.O_WINS;
+                result = MoveResult.WIN;
+            } else if ((xMask | oMask) == BitBoard.FULL_MASK) {
+                outcome = GameProtocol.DRAWN;
+                result = MoveResult.DRAW;
+            } else {
+                nextPlayer = (player == 'X') ? 'O' : 'X';
+            }
+
+            long updated = GameProtocol.packWord(
+                GameProtocol.packState(xMask, oMask, nextPlayer, outcome),
+                GameProtocol.versionOf(current) + 1);
+            if (!word.compareAndSet(current, updated)) {
+                // Another call changed the game; validate again against the new state
+                continue;
+            }
+
+            LOG.log(AsyncLogger.Level.INFO, "Game", "Player {} moved to position {}", player, position);
+            if (result != MoveResult.ACCEPTED) {
+                LOG.log(AsyncLogger.Level.INFO, "Game", GameProtocol.statusText(outcome));
+            }
+
+            published(updated, result == MoveResult.ACCEPTED ? GameEvent.Type.MOVE : GameEvent.Type.GAME_OVER,
+                player, position);
+            return result.with(updated);
+        }
+    }
+
+    @Override
+    public char[] getBoard() {
+        int state = GameProtocol.stateOf(word.get());
+        return BitBoard.toCharArray(GameProtocol.xMask(state), GameProtocol.oMask(state));
+    }
+
+    @Override
+    public GameSnapshot getSnapshot() {
+        return snapshotOf(word.get());
+    }
+
+    @Override
+    public GameSnapshot getSnapshotIfChanged(long sinceVersion) {
+        long current = word.get();
+        return GameProtocol.versionOf(current) == sinceVersion ? null : snapshotOf(current);
+    }
+
+    @Override
+    public GameSnapshot awaitChange(long sinceVersion, long timeoutMillis) {
+        long current = word.get();
+        if (GameProtocol.versionOf(current) != sinceVersion) {
+            return snapshotOf(current);
+        }
+
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(
+            Math.min(Math.max(timeoutMillis, 0), TicTacToeService.MAX_AWAIT_MILLIS));
+        // Count ourselves before re-reading the word, so a publisher that
+        // misses the count is guaranteed to be seen by the re-read
+        waiters.incrementAndGet();
+        changeLock.lock();
+        try {
+            while (true) {
+                current = word.get();
+                if (GameProtocol.versionOf(current) != sinceVersion) {
+                    return snapshotOf(current);
+                }
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            changeLock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return GameProtocol.versionOf(word.get());
+    }
+
+    @Override
+    public String getStatus() {
+        return GameProtocol.statusText(GameProtocol.outcome(GameProtocol.stateOf(word.get())));
+    }
+
+    @Override
+    public GameOutcome getOutcome() {
+        return GameOutcome.ofCode(GameProtocol.outcome(GameProtocol.stateOf(word.get())));
+    }
+
+    @Override
+    public char getCurrentPlayer() {
+        return GameProtocol.currentPlayer(GameProtocol.stateOf(word.get()));
+    }
+
+    @Override
+    public int getRows() {
+        return 3;
+    }
+
+    @Override
+    public int getCols() {
+        return 3;
+    }
+
+    @Override
+    public int getWinLength() {
+        return 3;
+    }
+
+    @Override
+    public long getStateWord() {
+        return word.get();
+    }
+
+    @Override
+    public String resetGame() {
+        long current;
+        long updated;
+        do {
+            current = word.get();
+            updated = GameProtocol.packWord(0, GameProtocol.versionOf(current) + 1);
+        } while (!word.compareAndSet(current, updated));
+
+        LOG.log(AsyncLogger.Level.INFO, "Game", "Game has been reset.");
+        published(updated, GameEvent.Type.RESET, (char) 0, -1);
+        return "Game reset successfully.";
+    }
+
+    @Override
+    public String setAiPlayer(char side) {
+        return AiPlayer.install(this, aiPlayer, side);
+    }
+
+    @Override
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Wakes long-poll waiters and notifies listeners of a published state.
+     */
+    private void published(long updated, GameEvent.Type type, char player, int position) {
+        if (waiters.get() > 0) {
+            changeLock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                changeLock.unlock();
+            }
+        }
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        GameEvent event = new GameEvent(type, player, position, snapshotOf(updated));
+        for (GameListener listener : listeners) {
+            try {
+                listener.onGameEvent(event);
+            } catch (RuntimeException e) {
+                LOG.log(AsyncLogger.Level.WARN, "Game", "Listener failed: {}", e);
+            }
+        }
+    }
+
+    private static GameSnapshot snapshotOf(long word) {
+        int state = GameProtocol.stateOf(word);
+        int outcome = GameProtocol.outcome(state);
+        return GameSnapshot.ofOwned(
+            BitBoard.toCharArray(GameProtocol.xMask(state), GameProtocol.oMask(state)),
+            GameProtocol.currentPlayer(state), GameOutcome.ofCode(outcome), GameProtocol.versionOf(word));
+    }
+}
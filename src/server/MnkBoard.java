@@ -0,0 +1,144 @@
+// src/server/MnkBoard.java
+package server;
+
+import java.util.Arrays;
+
+/**
+ * Board for the general m,n,k game: rows x cols cells, k in a row wins
+ * (e.g. 15x15 with k = 5 for gomoku-style play).
+ * Each side is a bitset in a long[]; a win is detected by walking only
+ * the four lines through the stone just placed.
+ */
+public class MnkBoard implements GameBoard {
+    public static final int MAX_SIDE = 64;
+
+    // Row and column steps for horizontal, vertical and both diagonals
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final long[] xBits;
+    private final long[] oBits;
+    private int stones;
+
+    /**
+     * @param rows number of rows (1-64)
+     * @param cols number of columns (1-64)
+     * @param winLength stones in a row needed to win
+     * @throws IllegalArgumentException if the sizes are out of range or k cannot fit
+     */
+    public MnkBoard(int rows, int cols, int winLength) {
+        if (rows < 1 || cols < 1 || rows > MAX_SIDE || cols > MAX_SIDE) {
+            throw new IllegalArgumentException("Board sides must be between 1 and " + MAX_SIDE);
+        }
+        if (winLength < 1 || winLength > Math.max(rows, cols)) {
+            throw new IllegalArgumentException("Win length must be between 1 and " + Math.max(rows, cols));
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        int words = (rows * cols + 63) >>> 6;
+        this.xBits = new long[words];
+        this.oBits = new long[words];
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int getWinLength() {
+        return winLength;
+    }
+
+    @Override
+    public int getCellCount() {
+        return rows * cols;
+    }
+
+    @Override
+    public void place(char player, int position) {
+        long[] bits = player == 'X' ? xBits : oBits;
+        bits[position >>> 6] |= 1L << position;
+        stones++;
+    }
+
+    @Override
+    public boolean isOccupied(int position) {
+        long bit = 1L << position;
+        return ((xBits[position >>> 6] | oBits[position >>> 6]) & bit) != 0;
+    }
+
+    @Override
+    public boolean isWinningMove(int position) {
+        long[] bits = (xBits[position >>> 6] & (1L << position)) != 0 ? xBits : oBits;
+        int row = position / cols;
+        int col = position % cols;
+
+        for (int d = 0; d < ROW_STEPS.length; d++) {
+            int run = 1
+                + countRun(bits, row, col, ROW_STEPS[d], COL_STEPS[d])
+                + countRun(bits, row, col, -ROW_STEPS[d], -COL_STEPS[d]);
+            if (run >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts same-side stones from a cell outward in one direction, excluding the cell.
+     * Stops early once the run alone would already be long enough.
+     */
+    private int countRun(long[] bits, int row, int col, int rowStep, int colStep) {
+        int count = 0;
+        int r = row + rowStep;
+        int c = col + colStep;
+        while (count < winLength && r >= 0 && r < rows && c >= 0 && c < cols) {
+            int position = r * cols + c;
+            if ((bits[position >>> 6] & (1L << position)) == 0) {
+                break;
+            }
+            count++;
+            r += rowStep;
+            c += colStep;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isFull() {
+        return stones == rows * cols;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(xBits, 0);
+        Arrays.fill(oBits, 0);
+        stones = 0;
+    }
+
+    @Override
+    public char[] toCharArray() {
+        char[] cells = new char[rows * cols];
+        for (int i = 0; i < cells.length; i++) {
+            long bit = 1L << i;
+            if ((xBits[i >>> 6] & bit) != 0) {
+                cells[i] = 'X';
+            } else if ((oBits[i >>> 6] & bit) != 0) {
+                cells[i] = 'O';
+            } else {
+                cells[i] = '-';
+            }
+        }
+        return cells;
+    }
+}
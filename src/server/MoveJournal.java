@@ -0,0 +1,541 @@
+// src/server/MoveJournal.java
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of game changes, replayed to rebuild games after a restart.
+ *
+ * Every created game, accepted move, reset, AI side change and removed
+ * game is one {@value #RECORD_BYTES}-byte record in a memory-mapped file:
+ * the game ID, then type, player, side or board size, position and a
+ * check value. An append
+ * is two stores into the mapping under a short lock, so games append from
+ * under their own lock and each game's records stay in move order. The
+ * file grows by {@link #REGION_BYTES} at a time.
+ *
+ * How soon records reach the disk depends on the {@link SyncPolicy}. With
+ * {@code ALWAYS}, a move waits after releasing the game lock until a force
+ * covering its record has finished; moves waiting together share one force.
+ * Only the mover's reply and its events wait: the move is applied before
+ * the force, so other clients can read it, and long polls return it, before
+ * it is durable. A crash in that window loses a move others have seen.
+ * Once a force fails, waits throw instead, and the mover's call fails.
+ *
+ * {@link #open} compacts the file first: records of removed games and
+ * moves before a game's last reset are dropped, as are all but a game's
+ * latest AI record, which outlives resets. The rest are replayed and
+ * written to a new file that replaces the old one. Unreadable records,
+ * such as one torn by a crash, are skipped.
+ */
+public final class MoveJournal implements Closeable {
+    public static final int RECORD_BYTES = 16;
+    /** Game ID under which {@link Server}'s own "TicTacToeGame" service is journaled. */
+    public static final long DEFAULT_GAME_ID = 0;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+
+    static final long REGION_BYTES = 64L << 20;
+
+    private static final int CREATE = 1;
+    private static final int MOVE = 2;
+    private static final int RESET = 3;
+    private static final int REMOVE = 4;
+    private static final int AI_PLAYER = 5;
+
+    /**
+     * When appended records are forced to disk.
+     */
+    public enum SyncPolicy {
+        /** Never; the OS writes pages back. Survives a process crash, not a power loss. */
+        NONE,
+        /** Every sync interval on a background thread; a power loss costs at most one interval. */
+        INTERVAL,
+        /**
+         * Before a move returns; concurrent moves share one force. Other
+         * clients may see the move before it is forced.
+         */
+        ALWAYS
+    }
+
+    /**
+     * Receives the records that survive compaction, in file order.
+     */
+    public interface Replay {
+        void create(long gameId, int rows, int cols, int winLength);
+
+        void move(long gameId, char player, int position);
+
+        void reset(long gameId);
+
+        /**
+         * @param side the side the built-in AI plays, or '-' if it is off
+         */
+        void aiPlayer(long gameId, char side);
+    }
+
+    /**
+     * What {@link #open} found in an existing file.
+     */
+    public static final class Recovery {
+        long recordsRead;
+        long recordsKept;
+        long recordsSkipped;
+        long games;
+        long lastGameId;
+
+        public long getRecordsRead() {
+            return recordsRead;
+        }
+
+        public long getRecordsKept() {
+            return recordsKept;
+        }
+
+        public long getRecordsSkipped() {
+            return recordsSkipped;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * @return the highest game ID ever journaled, live or not
+         */
+        public long getLastGameId() {
+            return lastGameId;
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(long offset, long gameId, long word);
+    }
+
+    private final FileChannel channel;
+    private final SyncPolicy policy;
+    private final long syncIntervalNanos;
+    private final Recovery recovery;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private MappedByteBuffer current;
+    private long currentBase;
+    // Written under appendLock once a record is complete, so every record below it is written
+    private volatile long position;
+    // Indexed by offset / REGION_BYTES; grown under appendLock, read by the sync thread
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[4];
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncRequested = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private long requested;
+    private volatile long durable;
+    // Set once a force fails; the sync thread stops and ALWAYS waits fail from then on
+    private volatile IOException syncFailure;
+    private volatile boolean closed;
+    private final LongAdder syncs = new LongAdder();
+    private final Thread syncThread;
+
+    private MoveJournal(Path file, SyncPolicy policy, long syncIntervalMillis, long start, Recovery recovery)
+            throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.policy = policy;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, syncIntervalMillis));
+        this.recovery = recovery;
+        this.currentBase = start - start % REGION_BYTES;
+        this.current = map(currentBase);
+        this.position = start;
+        this.durable = start;
+        this.requested = start;
+
+        if (policy == SyncPolicy.NONE) {
+            this.syncThread = null;
+        } else {
+            this.syncThread = new Thread(this::syncLoop, "journal-sync");
+            syncThread.setDaemon(true);
+            syncThread.start();
+        }
+    }
+
+    /**
+     * Compacts and replays an existing journal, then opens it for appending.
+     * @param file the journal; created if missing
+     * @param policy when records are forced to disk
+     * @param syncIntervalMillis force interval for {@link SyncPolicy#INTERVAL}
+     * @param replay receives every record kept, before this returns
+     * @return the journal, positioned after the kept records
+     * @throws IOException if the file cannot be read, written or replaced
+     */
+    public static MoveJournal open(Path file, SyncPolicy policy, long syncIntervalMillis, Replay replay)
+            throws IOException {
+        Recovery recovery = new Recovery();
+        long start = 0;
+        if (Files.exists(file)) {
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            Files.deleteIfExists(compacted);
+            try (MoveJournal out = new MoveJournal(compacted, SyncPolicy.NONE, 0, 0, recovery)) {
+                compact(file, out, replay, recovery);
+                start = out.position;
+            }
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return new MoveJournal(file, policy, syncIntervalMillis, start, recovery);
+    }
+
+    /**
+     * Two passes: find each live game's last create or reset, then copy and
+     * replay what follows it.
+     */
+    private static void compact(Path file, MoveJournal out, Replay replay, Recovery recovery) throws IOException {
+        Map<Long, Long> since = new HashMap<>();
+        Map<Long, Long> lastAi = new HashMap<>();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            forEachRecord(in, (offset, gameId, word) -> {
+                recovery.recordsRead++;
+                recovery.lastGameId = Math.max(recovery.lastGameId, gameId);
+                switch (typeOf(word)) {
+                    case CREATE:
+                        since.put(gameId, offset);
+                        break;
+                    case RESET:
+                        since.replace(gameId, offset);
+                        break;
+                    case REMOVE:
+                        since.remove(gameId);
+                        lastAi.remove(gameId);
+                        break;
+                    case AI_PLAYER:
+                        lastAi.put(gameId, offset);
+                        break;
+                    default:
+                        break;
+                }
+            }, recovery);
+            recovery.games = since.size();
+
+            forEachRecord(in, (offset, gameId, word) -> {
+                Long from = since.get(gameId);
+                int type = typeOf(word);
+                if (from == null) {
+                    return;
+                }
+                // A reset keeps the AI, so the latest AI record counts wherever it is
+                boolean stale = type == AI_PLAYER ? offset != lastAi.get(gameId)
+                    : type != CREATE && offset <= from;
+                if (stale) {
+                    return;
+                }
+                out.append(gameId, word);
+                recovery.recordsKept++;
+                if (type == CREATE) {
+                    replay.create(gameId, byteAt(word, 48), byteAt(word, 40), byteAt(word, 32));
+                } else if (type == MOVE) {
+                    replay.move(gameId, (char) byteAt(word, 48), positionOf(word));
+                } else if (type == RESET) {
+                    replay.reset(gameId);
+                } else if (type == AI_PLAYER) {
+                    replay.aiPlayer(gameId, (char) byteAt(word, 48));
+                }
+            }, null);
+        }
+        // Keeps the highest ID known after its game is gone, so IDs are not handed out twice
+        if (recovery.lastGameId > 0 && !since.containsKey(recovery.lastGameId)) {
+            out.appendRemove(recovery.lastGameId);
+        }
+    }
+
+    private static void forEachRecord(FileChannel in, RecordVisitor visitor, Recovery recovery) throws IOException {
+        long size = in.size() - in.size() % RECORD_BYTES;
+        for (long base = 0; base < size; base += REGION_BYTES) {
+            int length = (int) Math.min(REGION_BYTES, size - base);
+            MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, base, length);
+            for (int i = 0; i < length; i += RECORD_BYTES) {
+                long gameId = region.getLong(i);
+                long word = region.getLong(i + 8);
+                if (word == 0 && gameId == 0) {
+                    continue;
+                }
+                if (typeOf(word) < CREATE || typeOf(word) > AI_PLAYER || (word & 0xFFFF) != check(gameId, word)) {
+                    if (recovery != null) {
+                        recovery.recordsSkipped++;
+                    }
+                    continue;
+                }
+                visitor.visit(base + i, gameId, word);
+            }
+        }
+    }
+
+    /**
+     * Records a new game.
+     * @throws UncheckedIOException if the file cannot grow
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long appendCreate(long gameId, int rows, int cols, int winLength) {
+        return append(gameId, word(CREATE, rows, cols, winLength, 0));
+    }
+
+    /**
+     * Records an accepted move.
+     * @return offset after the record, for {@link #awaitDurable}
+     * @throws UncheckedIOException if the file cannot grow
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long appendMove(long gameId, char player, int position) {
+        return append(gameId, word(MOVE, player, 0, 0, position));
+    }
+
+    /**
+     * Records a reset.
+     * @return offset after the record, for {@link #awaitDurable}
+     * @throws UncheckedIOException if the file cannot grow
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long appendReset(long gameId) {
+        return append(gameId, word(RESET, 0, 0, 0, 0));
+    }
+
+    /**
+     * Records which side the built-in AI now plays.
+     * @param side 'X' or 'O', or '-' if the AI is off
+     * @return offset after the record, for {@link #awaitDurable}
+     * @throws UncheckedIOException if the file cannot grow
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long appendAiPlayer(long gameId, char side) {
+        return append(gameId, word(AI_PLAYER, side, 0, 0, 0));
+    }
+
+    /**
+     * Records that a game is gone; compaction drops all its records.
+     * @throws UncheckedIOException if the file cannot grow
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long appendRemove(long gameId) {
+        return append(gameId, word(REMOVE, 0, 0, 0, 0));
+    }
+
+    private static long word(int type, int a, int b, int c, int position) {
+        return (long) type << 56 | (long) (a & 0xFF) << 48 | (long) (b & 0xFF) << 40
+            | (long) (c & 0xFF) << 32 | (long) (position & 0xFFFF) << 16;
+    }
+
+    private static int typeOf(long word) {
+        return (int) (word >>> 56);
+    }
+
+    private static int byteAt(long word, int shift) {
+        return (int) (word >>> shift) & 0xFF;
+    }
+
+    private static int positionOf(long word) {
+        return (int) (word >>> 16) & 0xFFFF;
+    }
+
+    /**
+     * 16 bits mixed from the rest of the record, so a torn record fails the check.
+     */
+    private static long check(long gameId, long word) {
+        long h = (gameId ^ (word >>> 16)) * 0x9E3779B97F4A7C15L;
+        return h >>> 48;
+    }
+
+    private long append(long gameId, long word) {
+        word |= check(gameId, word);
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            long offset = position;
+            if (offset - currentBase == REGION_BYTES) {
+                current = map(offset);
+                currentBase = offset;
+            }
+            int index = (int) (offset - currentBase);
+            current.putLong(index, gameId);
+            current.putLong(index + 8, word);
+            position = offset + RECORD_BYTES;
+            return offset + RECORD_BYTES;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private MappedByteBuffer map(long base) throws IOException {
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, base, REGION_BYTES);
+        int index = (int) (base / REGION_BYTES);
+        MappedByteBuffer[] grown = regions;
+        if (index >= grown.length) {
+            grown = Arrays.copyOf(grown, Math.max(grown.length * 2, index + 1));
+        }
+        grown[index] = region;
+        regions = grown;
+        return region;
+    }
+
+    /**
+     * Under {@link SyncPolicy#ALWAYS}, waits until the records below an
+     * offset are on disk; otherwise returns at once. Call it without holding
+     * a game lock. Changes made before the wait are already visible to
+     * other callers; this only holds back the caller's own reply.
+     * @param offset a value returned by an append
+     * @throws UncheckedIOException if a force has failed, so the records may never reach the disk
+     */
+    public void awaitDurable(long offset) {
+        if (policy != SyncPolicy.ALWAYS || durable >= offset) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (offset > requested) {
+                requested = offset;
+                syncRequested.signal();
+            }
+            while (durable < offset && !closed && syncFailure == null) {
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+        IOException failure = syncFailure;
+        if (failure != null && durable < offset) {
+            throw new UncheckedIOException("Journal sync failed; change is not durable", failure);
+        }
+    }
+
+    /**
+     * Sync thread: forces what has been appended, each interval or as soon as a move asks.
+     */
+    private void syncLoop() {
+        while (!closed) {
+            syncLock.lock();
+            try {
+                if (policy == SyncPolicy.ALWAYS) {
+                    while (requested <= durable && !closed) {
+                        syncRequested.await();
+                    }
+                } else {
+                    syncRequested.awaitNanos(syncIntervalNanos);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+            try {
+                force();
+            } catch (IOException | RuntimeException e) {
+                syncFailure = e instanceof IOException ? (IOException) e : new IOException(e);
+                AsyncLogger.shared().log(AsyncLogger.Level.ERROR, "Journal", "Sync failed; no longer syncing: {}", e);
+                signalSynced();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forces every record appended so far, then wakes the moves waiting for it.
+     */
+    private void force() throws IOException {
+        long target = position;
+        long from = durable;
+        if (target > from) {
+            MappedByteBuffer[] mapped = regions;
+            for (long base = from - from % REGION_BYTES; base < target; base += REGION_BYTES) {
+                int start = (int) (Math.max(from, base) - base);
+                int end = (int) (Math.min(target, base + REGION_BYTES) - base);
+                mapped[(int) (base / REGION_BYTES)].force(start, end - start);
+            }
+            syncs.increment();
+        }
+        durable = target;
+        signalSynced();
+    }
+
+    private void signalSynced() {
+        syncLock.lock();
+        try {
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @return what {@link #open} found and kept
+     */
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    /**
+     * @return records in the file, including those kept by compaction
+     */
+    public long getRecordCount() {
+        return position / RECORD_BYTES;
+    }
+
+    /**
+     * @return forces done so far; with group commit, fewer than moves
+     */
+    public long getSyncCount() {
+        return syncs.sum();
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return policy;
+    }
+
+    /**
+     * Stops the sync thread, forces what is left and closes the file.
+     * Appends after this throw {@link IllegalStateException}.
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        if (syncThread != null) {
+            syncLock.lock();
+            try {
+                syncRequested.signal();
+            } finally {
+                syncLock.unlock();
+            }
+            try {
+                syncThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            force();
+        } finally {
+            channel.close();
+        }
+    }
+}
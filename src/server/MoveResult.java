@@ -0,0 +1,124 @@
+// src/server/MoveResult.java
+package server;
+
+/**
+ * Typed result of a move, returned by {@link GameService#play} packed into
+ * a long together with the game's state word after the call, so the hot
+ * path allocates nothing. Text is only built by {@link #describe}.
+ *
+ * The ordinal is the {@link GameProtocol} status code. A move word holds
+ * the ordinal in its top four bits and the state word (packed state and
+ * version) below.
+ */
+public enum MoveResult {
+    ACCEPTED,
+    NOT_YOUR_TURN,
+    INVALID_POSITION,
+    OCCUPIED,
+    GAME_OVER,
+    WIN,
+    DRAW;
+
+    private static final MoveResult[] BY_CODE = values();
+    private static final int RESULT_SHIFT = 60;
+    private static final long STATE_WORD_MASK = (1L << RESULT_SHIFT) - 1;
+
+    /**
+     * @param stateWord the game's state word after the call
+     * @return move word combining this result with the state
+     */
+    public long with(long stateWord) {
+        return ((long) ordinal() << RESULT_SHIFT) | stateWord;
+    }
+
+    /**
+     * @return true if the move was placed on the board
+     */
+    public boolean isAccepted() {
+        return this == ACCEPTED || this == WIN || this == DRAW;
+    }
+
+    /**
+     * @param moveWord a value returned by {@link GameService#play}
+     * @return the move's result
+     */
+    public static MoveResult of(long moveWord) {
+        return BY_CODE[(int) (moveWord >>> RESULT_SHIFT)];
+    }
+
+    /**
+     * @param code a status code from a game result frame (0-6)
+     * @return the matching result
+     */
+    public static MoveResult ofCode(int code) {
+        return BY_CODE[code];
+    }
+
+    /**
+     * @param moveWord a value returned by {@link GameService#play}
+     * @return the state word after the call (see {@link GameProtocol#stateOf})
+     */
+    public static long stateWord(long moveWord) {
+        return moveWord & STATE_WORD_MASK;
+    }
+
+    /**
+     * @param moveWord a value returned by {@link GameService#play}
+     * @return the player to move after the call
+     */
+    public static char nextPlayer(long moveWord) {
+        return GameProtocol.currentPlayer(GameProtocol.stateOf(moveWord));
+    }
+
+    /**
+     * @param moveWord a value returned by {@link GameService#play}
+     * @return the game's outcome after the call
+     */
+    public static GameOutcome outcome(long moveWord) {
+        return GameOutcome.ofCode(GameProtocol.outcome(GameProtocol.stateOf(moveWord)));
+    }
+
+    /**
+     * Renders the message makeMove has always returned for a move word.
+     * @param moveWord a value returned by {@link GameService#play}
+     * @return result message
+     */
+    public static String describe(long moveWord) {
+        return of(moveWord).describe(GameProtocol.stateOf(moveWord));
+    }
+
+    /**
+     * Renders the message makeMove returns for a move word on a board of any size.
+     * @param moveWord a value returned by {@link GameService#play}
+     * @param cellCount cells on the board
+     * @return result message
+     */
+    public static String describe(long moveWord, int cellCount) {
+        if (of(moveWord) == INVALID_POSITION) {
+            return "Invalid position! Must be between 0 and " + (cellCount - 1) + ".";
+        }
+        return describe(moveWord);
+    }
+
+    /**
+     * Renders this result's message against the packed state after the call.
+     * @param state packed state (see {@link GameProtocol})
+     * @return result message
+     */
+    public String describe(int state) {
+        switch (this) {
+            case ACCEPTED:
+                return "Move accepted. Next player: " + GameProtocol.currentPlayer(state);
+            case NOT_YOUR_TURN:
+                return "Not your turn! Current player: " + GameProtocol.currentPlayer(state);
+            case INVALID_POSITION:
+                return "Invalid position! Must be between 0 and 8.";
+            case OCCUPIED:
+                return "Position already occupied! Choose another.";
+            case GAME_OVER:
+                return "Game is already over. Status: " + GameProtocol.statusText(GameProtocol.outcome(state));
+            default:
+                return GameProtocol.statusText(GameProtocol.outcome(state));
+        }
+    }
+}
@@ -0,0 +1,541 @@
+// src/server/NioServer.java
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking TCP front end for a {@link ServerDispatcher}.
+ * One acceptor thread hands connections round-robin to a small, fixed
+ * set of selector threads; decoded calls run on workers so a slow service
+ * call never stalls a selector. Workers are a virtual thread per call where
+ * the runtime has them (see {@link RequestExecutors}), else a fixed pool.
+ * Long-poll reads ({@code awaitChange}) are parked on the game rather than
+ * holding a worker until it changes.
+ */
+public class NioServer {
+    private static final int DEFAULT_SELECTOR_THREADS = 2;
+    private static final int DEFAULT_WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int INITIAL_READ_BUFFER_BYTES = 1024;
+    private static final int MAX_POOLED_BUFFERS = 4096;
+
+    private final ServerDispatcher dispatcher;
+    private final ServerSocketChannel serverChannel;
+    private final SelectorLoop[] loops;
+    private final ExecutorService workers;
+    private final BufferPool framePool;
+    private final ScheduledExecutorService parkTimer;
+    private final Thread acceptor;
+    private volatile boolean running;
+
+    public NioServer(ServerDispatcher dispatcher, int port) throws IOException {
+        this(dispatcher, new InetSocketAddress(port), DEFAULT_SELECTOR_THREADS, DEFAULT_WORKER_THREADS);
+    }
+
+    /**
+     * @param dispatcher the dispatcher that serves decoded calls
+     * @param address the address to listen on
+     * @param selectorThreads number of selector threads
+     * @param workerThreads number of threads running service calls, if virtual threads are unavailable
+     * @throws IOException if the socket cannot be bound
+     */
+    public NioServer(ServerDispatcher dispatcher, InetSocketAddress address,
+                     int selectorThreads, int workerThreads) throws IOException {
+        this.dispatcher = dispatcher;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address, 1024);
+
+        this.loops = new SelectorLoop[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++) {
+            loops[i] = new SelectorLoop(i);
+        }
+
+        this.workers = RequestExecutors.newRequestExecutor("nio-worker-", workerThreads);
+        this.framePool = new BufferPool(GameProtocol.BUFFER_BYTES, MAX_POOLED_BUFFERS);
+        this.parkTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "nio-park-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.acceptor = new Thread(this::acceptLoop, "nio-acceptor");
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        running = true;
+        for (SelectorLoop loop : loops) {
+            loop.thread.start();
+        }
+        acceptor.start();
+        System.out.println("[Network] Listening on port " + getPort()
+            + " with " + loops.length + " selector thread(s), "
+            + (RequestExecutors.virtualThreadsAvailable() ? "a virtual thread per call." : "pooled workers."));
+    }
+
+    /**
+     * @return the bound port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting, closes every connection and stops all threads.
+     */
+    public void close() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        for (SelectorLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        workers.shutdownNow();
+        parkTimer.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                System.err.println("[Network] Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the service call, or batch of calls, in one frame and queues the reply.
+     */
+    private void process(Connection connection, byte[] frame) {
+        int requestId = -1;
+        Object result;
+        try {
+            if (frame.length > 4 && frame[4] == WireCodec.TYPE_BATCH) {
+                // Calls run in order on this worker; awaitChange is not parked here
+                WireCodec.Batch batch = WireCodec.decodeBatch(frame);
+                requestId = batch.requestId;
+                result = dispatcher.handleBatch(batch.serviceName, batch.methodNames, batch.params);
+            } else {
+                WireCodec.Call call = WireCodec.decodeCall(frame);
+                requestId = call.requestId;
+                if (call.methodName.equals("awaitChange") && parkGeneric(connection, call)) {
+                    return;
+                }
+                result = dispatcher.handleRequest(call.serviceName, call.methodName, call.params);
+            }
+        } catch (IOException e) {
+            connection.close();
+            return;
+        } catch (RuntimeException e) {
+            result = "Error: " + e;
+        }
+
+        ByteBuffer reply;
+        try {
+            reply = WireCodec.encodeResult(requestId, result);
+        } catch (IllegalArgumentException e) {
+            reply = WireCodec.encodeResult(requestId, "Error: " + e.getMessage());
+        }
+        connection.send(reply);
+    }
+
+    /**
+     * Runs a compact game call and queues the reply in a pooled buffer.
+     */
+    private void processGame(Connection connection, int requestId, int op, char player, int position, long gameId) {
+        long start = System.nanoTime();
+        ByteBuffer reply = framePool.acquire();
+        GameService game = dispatcher.getGame(gameId);
+        GameProtocol.execute(reply, requestId, game, op, player, position);
+        dispatcher.getMetrics().recordHostedGame(GameProtocol.dispatchOpcode(op), start, game == null);
+        connection.send(reply);
+    }
+
+    /**
+     * Runs a compact conditional read, parking it if it may wait for a change.
+     */
+    private void processConditional(Connection connection, int requestId, int op, long gameId,
+                                    long sinceVersion, int timeoutMillis) {
+        ByteBuffer reply;
+        if (op != GameProtocol.OP_GET_SNAPSHOT_IF_CHANGED && op != GameProtocol.OP_AWAIT_CHANGE) {
+            reply = framePool.acquire();
+            GameProtocol.encodeResult(reply, requestId, GameProtocol.UNKNOWN_OP, 0, 0);
+            connection.send(reply);
+            return;
+        }
+
+        long start = System.nanoTime();
+        GameService game = dispatcher.getGame(gameId);
+        if (op == GameProtocol.OP_AWAIT_CHANGE && game != null && game.isClassicBoard() && timeoutMillis > 0) {
+            new ParkedRead(connection, requestId, game, sinceVersion, true).park(timeoutMillis);
+            return;
+        }
+        reply = framePool.acquire();
+        GameProtocol.executeConditional(reply, requestId, game, sinceVersion);
+        dispatcher.getMetrics().recordHostedGame(GameProtocol.dispatchOpcode(op), start, game == null);
+        connection.send(reply);
+    }
+
+    /**
+     * Parks a general-encoding awaitChange call on its game.
+     * @return false if the call is not a well-formed awaitChange on a game
+     */
+    private boolean parkGeneric(Connection connection, WireCodec.Call call) {
+        Object service = dispatcher.resolveService(call.serviceName);
+        if (!(service instanceof GameService) || call.params.length < 2
+                || !(call.params[0] instanceof Long) || !(call.params[1] instanceof Long)) {
+            return false;
+        }
+        long timeoutMillis = Math.min((Long) call.params[1], TicTacToeService.MAX_AWAIT_MILLIS);
+        new ParkedRead(connection, call.requestId, (GameService) service, (Long) call.params[0], false)
+            .park(timeoutMillis);
+        return true;
+    }
+
+    /**
+     * A long-poll read waiting for its game to change.
+     * Completes once, from whichever comes first: a game event or the timeout.
+     * Closing its connection cancels it without a reply.
+     */
+    private final class ParkedRead implements GameListener, Runnable {
+        final Connection connection;
+        final int requestId;
+        final GameService game;
+        final long sinceVersion;
+        final boolean compact;
+        final AtomicBoolean done = new AtomicBoolean();
+        volatile ScheduledFuture<?> timeout;
+
+        ParkedRead(Connection connection, int requestId, GameService game, long sinceVersion, boolean compact) {
+            this.connection = connection;
+            this.requestId = requestId;
+            this.game = game;
+            this.sinceVersion = sinceVersion;
+            this.compact = compact;
+        }
+
+        void park(long timeoutMillis) {
+            connection.parked.add(this);
+            // Added before the check, so a close either sees this read or is seen here
+            if (connection.closed) {
+                cancel();
+                return;
+            }
+            game.addGameListener(this);
+            // A change between the caller's read and the listener going in is not pushed
+            if (timeoutMillis <= 0 || game.getVersion() != sinceVersion) {
+                complete();
+                return;
+            }
+            timeout = parkTimer.schedule(this, timeoutMillis, TimeUnit.MILLISECONDS);
+            if (done.get()) {
+                timeout.cancel(false);
+            }
+        }
+
+        @Override
+        public void onGameEvent(GameEvent event) {
+            complete();
+        }
+
+        @Override
+        public void run() {
+            complete();
+        }
+
+        /**
+         * Stops waiting without replying; the connection is gone.
+         */
+        void cancel() {
+            if (done.compareAndSet(false, true)) {
+                unpark();
+            }
+        }
+
+        private void complete() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            unpark();
+
+            if (compact) {
+                ByteBuffer reply = framePool.acquire();
+                GameProtocol.executeConditional(reply, requestId, game, sinceVersion);
+                connection.send(reply);
+            } else {
+                connection.send(WireCodec.encodeResult(requestId, game.getSnapshotIfChanged(sinceVersion)));
+            }
+        }
+
+        private void unpark() {
+            game.removeGameListener(this);
+            ScheduledFuture<?> pending = timeout;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            connection.parked.remove(this);
+        }
+    }
+
+    /**
+     * One selector thread serving a share of the connections.
+     */
+    private final class SelectorLoop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final Queue<SocketChannel> pendingRegistrations = new ConcurrentLinkedQueue<>();
+        final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+        SelectorLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-selector-" + index);
+        }
+
+        void register(SocketChannel channel) {
+            pendingRegistrations.add(channel);
+            selector.wakeup();
+        }
+
+        void requestWrite(Connection connection) {
+            pendingWrites.add(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    registerPending();
+                    enableWrites();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+
+                        if (!key.isValid()) {
+                            connection.close();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("[Network] Selector error: " + e.getMessage());
+                }
+            }
+
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Ignore on shutdown
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pendingRegistrations.poll()) != null) {
+                try {
+                    Connection connection = new Connection(channel, this);
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void enableWrites() {
+            Connection connection;
+            while ((connection = pendingWrites.poll()) != null) {
+                SelectionKey key = connection.key;
+                if (key != null && key.isValid()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-connection read buffer, outbound queue and parked long polls.
+     * Reads, flushes and close run on the owning selector thread only.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectorLoop loop;
+        final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        final Set<ParkedRead> parked = ConcurrentHashMap.newKeySet();
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_BYTES);
+        SelectionKey key;
+        volatile boolean closed;
+
+        Connection(SocketChannel channel, SelectorLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+        }
+
+        void read() {
+            int n;
+            try {
+                n = channel.read(readBuffer);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            while (readBuffer.remaining() >= WireCodec.HEADER_BYTES) {
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length <= 0 || length > WireCodec.MAX_FRAME_BYTES) {
+                    close();
+                    return;
+                }
+                if (readBuffer.remaining() < WireCodec.HEADER_BYTES + length) {
+                    if (readBuffer.capacity() < WireCodec.HEADER_BYTES + length) {
+                        ByteBuffer larger = ByteBuffer.allocate(WireCodec.HEADER_BYTES + length);
+                        larger.put(readBuffer);
+                        readBuffer = larger;
+                        return;
+                    }
+                    break;
+                }
+
+                readBuffer.position(readBuffer.position() + WireCodec.HEADER_BYTES);
+                byte type = readBuffer.get(readBuffer.position() + 4);
+
+                if (type == GameProtocol.TYPE_GAME_CALL && length == GameProtocol.CONDITIONAL_CALL_BODY_BYTES) {
+                    int requestId = readBuffer.getInt();
+                    readBuffer.get();
+                    int op = readBuffer.get();
+                    readBuffer.getShort(); // player and position are unused
+                    long gameId = readBuffer.getLong();
+                    long sinceVersion = readBuffer.getLong();
+                    int timeoutMillis = (int) Math.min(readBuffer.getInt(), TicTacToeService.MAX_AWAIT_MILLIS);
+                    workers.execute(() -> processConditional(this, requestId, op, gameId, sinceVersion, timeoutMillis));
+                } else if (type == GameProtocol.TYPE_GAME_CALL && length == GameProtocol.CALL_BODY_BYTES) {
+                    // Fixed-layout game frame: decode in place, no frame copy
+                    int requestId = readBuffer.getInt();
+                    readBuffer.get();
+                    int op = readBuffer.get();
+                    char player = (char) (readBuffer.get() & 0xFF);
+                    int position = readBuffer.get();
+                    long gameId = readBuffer.getLong();
+                    workers.execute(() -> processGame(this, requestId, op, player, position, gameId));
+                } else {
+                    byte[] frame = new byte[length];
+                    readBuffer.get(frame);
+                    workers.execute(() -> process(this, frame));
+                }
+            }
+            readBuffer.compact();
+        }
+
+        void send(ByteBuffer reply) {
+            writeQueue.add(reply);
+            // Queued after close drained the queue: nothing will flush it, so drain again
+            if (closed) {
+                releaseWrites();
+                return;
+            }
+            loop.requestWrite(this);
+        }
+
+        void flush() {
+            try {
+                ByteBuffer head;
+                while ((head = writeQueue.peek()) != null) {
+                    channel.write(head);
+                    if (head.hasRemaining()) {
+                        return;
+                    }
+                    writeQueue.poll();
+                    release(head);
+                }
+                // A worker that queues after this point also re-requests OP_WRITE
+                key.interestOps(SelectionKey.OP_READ);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /**
+         * Closes the channel, cancels parked reads and returns queued frames to the pool.
+         */
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(channel);
+            for (ParkedRead read : parked) {
+                read.cancel();
+            }
+            releaseWrites();
+        }
+
+        private void releaseWrites() {
+            ByteBuffer pending;
+            while ((pending = writeQueue.poll()) != null) {
+                release(pending);
+            }
+        }
+
+        private void release(ByteBuffer frame) {
+            if (frame.isDirect()) {
+                // Direct buffers only come from the game frame pool
+                framePool.release(frame);
+            }
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+}
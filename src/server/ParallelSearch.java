@@ -0,0 +1,254 @@
+// src/server/ParallelSearch.java
+package server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link AlphaBetaSearch} on several cores by splitting the root.
+ *
+ * Each iteration searches the first (best-ordered) root move alone to get
+ * a score to beat, then searches the remaining root moves as tasks on a
+ * shared {@link ForkJoinPool}, each raising the shared score as it finds
+ * better moves. All threads share one {@link TranspositionTable}.
+ *
+ * The pool is dedicated and bounded, and a semaphore caps how many searches
+ * split at once; the rest run single-threaded on their caller, so one big
+ * search cannot take every core from the other games.
+ *
+ * Thread-safe: one instance serves every game of its board shape.
+ */
+public class ParallelSearch {
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+    private final Semaphore splitPermits;
+
+    // Idle searchers of this shape; each task borrows one
+    private final ConcurrentLinkedQueue<AlphaBetaSearch> idle = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder splitSearches = new LongAdder();
+
+    /**
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @param table transposition table shared by all threads
+     * @param pool pool running the root tasks
+     * @param maxSplitSearches how many searches may use the pool at once; 0 never splits
+     */
+    public ParallelSearch(int rows, int cols, int winLength, TranspositionTable table,
+                          ForkJoinPool pool, int maxSplitSearches) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.table = table;
+        this.pool = pool;
+        this.splitPermits = new Semaphore(Math.max(0, maxSplitSearches));
+    }
+
+    /**
+     * Picks a move within the time budget, in parallel if a permit is free.
+     * @param cells board cells, 'X', 'O' or '-', row-major
+     * @param side the side to move, 'X' or 'O'
+     * @param budgetNanos time allowed for this call
+     * @return the chosen cell, or -1 if the game is already over
+     */
+    public int bestMove(char[] cells, char side, long budgetNanos) {
+        return bestMove(cells, side, budgetNanos, AlphaBetaSearch.MAX_DEPTH);
+    }
+
+    /**
+     * Same as {@link #bestMove(char[], char, long)}, stopping at a fixed depth.
+     * @param maxDepth deepest iteration to run
+     */
+    public int bestMove(char[] cells, char side, long budgetNanos, int maxDepth) {
+        long start = System.nanoTime();
+        AlphaBetaSearch master = borrow();
+        try {
+            if (!splitPermits.tryAcquire()) {
+                int move = master.bestMove(cells, side, budgetNanos, maxDepth);
+                nodes.add(master.getNodes());
+                return move;
+            }
+            try {
+                splitSearches.increment();
+                return splitSearch(master, cells, side, start + budgetNanos, maxDepth);
+            } finally {
+                splitPermits.release();
+            }
+        } finally {
+            idle.offer(master);
+            searches.increment();
+            searchNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private int splitSearch(AlphaBetaSearch master, char[] cells, char side, long deadline, int maxDepth) {
+        if (!master.setPosition(cells, side)) {
+            return -1;
+        }
+        int[] roots = new int[cells.length];
+        int count = master.rootMoves(roots);
+        int empty = 0;
+        for (char cell : cells) {
+            if (cell == '-') {
+                empty++;
+            }
+        }
+
+        int best = -1;
+        int lastDepth = Math.min(Math.min(empty, AlphaBetaSearch.MAX_DEPTH), maxDepth);
+        for (int depth = 1; depth <= lastDepth; depth++) {
+            // Last iteration's best first: it is the likeliest to set a high bar
+            for (int i = 0; i < count; i++) {
+                if (roots[i] == best) {
+                    System.arraycopy(roots, 0, roots, 1, i);
+                    roots[0] = best;
+                    break;
+                }
+            }
+
+            // Only the first iteration is exempt from the deadline
+            boolean timed = depth > 1;
+            // The master's count runs across iterations; add only this one's share
+            long nodesBefore = master.getNodes();
+            int firstScore = master.searchRoot(roots[0], depth, -AlphaBetaSearch.WIN - 1, deadline, timed);
+            nodes.add(master.getNodes() - nodesBefore);
+            if (firstScore == AlphaBetaSearch.ABORTED) {
+                break;
+            }
+
+            AtomicLong bestWord = new AtomicLong(pack(firstScore, roots[0]));
+            AtomicBoolean aborted = new AtomicBoolean();
+            if (count > 1) {
+                pool.invoke(new RootTask(cells, side, roots, 1, count, depth, deadline, timed, bestWord, aborted));
+            }
+            if (aborted.get()) {
+                break;
+            }
+
+            best = moveOf(bestWord.get());
+            if (Math.abs(scoreOf(bestWord.get())) >= AlphaBetaSearch.WIN - AlphaBetaSearch.MAX_DEPTH) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches a range of root moves, splitting it in half until one move is left.
+     */
+    private final class RootTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final char[] cells;
+        private final char side;
+        private final int[] roots;
+        private final int from;
+        private final int to;
+        private final int depth;
+        private final long deadline;
+        private final boolean timed;
+        private final AtomicLong bestWord;
+        private final AtomicBoolean aborted;
+
+        RootTask(char[] cells, char side, int[] roots, int from, int to, int depth, long deadline,
+                 boolean timed, AtomicLong bestWord, AtomicBoolean aborted) {
+            this.cells = cells;
+            this.side = side;
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.timed = timed;
+            this.bestWord = bestWord;
+            this.aborted = aborted;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                    new RootTask(cells, side, roots, from, middle, depth, deadline, timed, bestWord, aborted),
+                    new RootTask(cells, side, roots, middle, to, depth, deadline, timed, bestWord, aborted));
+                return;
+            }
+            if (aborted.get()) {
+                return;
+            }
+
+            AlphaBetaSearch search = borrow();
+            try {
+                search.setPosition(cells, side);
+                int move = roots[from];
+                int score = search.searchRoot(move, depth, scoreOf(bestWord.get()), deadline, timed);
+                nodes.add(search.getNodes());
+                if (score == AlphaBetaSearch.ABORTED) {
+                    aborted.set(true);
+                    return;
+                }
+                long current;
+                while (score > scoreOf(current = bestWord.get())) {
+                    if (bestWord.compareAndSet(current, pack(score, move))) {
+                        break;
+                    }
+                }
+            } finally {
+                idle.offer(search);
+            }
+        }
+    }
+
+    private AlphaBetaSearch borrow() {
+        AlphaBetaSearch search = idle.poll();
+        return search != null ? search : new AlphaBetaSearch(rows, cols, winLength, table);
+    }
+
+    private static long pack(int score, int move) {
+        return ((long) score << 32) | (move & 0xFFFFFFFFL);
+    }
+
+    private static int scoreOf(long word) {
+        return (int) (word >> 32);
+    }
+
+    private static int moveOf(long word) {
+        return (int) word;
+    }
+
+    /**
+     * @return nodes searched by all calls so far
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * @return nodes per second of wall-clock search time so far
+     */
+    public long getNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : nodes.sum() * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * @return calls so far, and how many of them ran in parallel
+     */
+    public String getStats() {
+        return searches.sum() + " searches (" + splitSearches.sum() + " parallel), "
+            + getNodes() + " nodes, " + getNodesPerSecond() + " nodes/s";
+    }
+}
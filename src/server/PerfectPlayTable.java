@@ -0,0 +1,152 @@
+// src/server/PerfectPlayTable.java
+package server;
+
+import java.util.Arrays;
+
+/**
+ * Minimax values and best moves for every reachable 3x3 position.
+ *
+ * Positions are indexed in base 3 (cell i contributes 3^i times 0 for empty,
+ * 1 for X, 2 for O), so a lookup is one array read. The table is filled once
+ * by a memoized negamax from the empty board; only the 5,478 reachable
+ * positions are visited, which takes a few milliseconds.
+ */
+public final class PerfectPlayTable {
+    public static final int POSITIONS = 19683; // 3^9
+
+    private static final byte UNREACHED = Byte.MIN_VALUE;
+    // Tried in this order so ties prefer the centre, then corners
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+    private static final PerfectPlayTable INSTANCE = new PerfectPlayTable();
+
+    // Score for the side to move: 10 - stones at the end for a win, 0 for a draw,
+    // negative for a loss, so faster wins and slower losses rank higher
+    private final byte[] scores = new byte[POSITIONS];
+    private final byte[] bestMoves = new byte[POSITIONS];
+    private final int reachable;
+    private final long buildNanos;
+
+    private PerfectPlayTable() {
+        long start = System.nanoTime();
+        Arrays.fill(scores, UNREACHED);
+        Arrays.fill(bestMoves, (byte) -1);
+        solve(0, 0, 0);
+
+        int count = 0;
+        for (byte score : scores) {
+            if (score != UNREACHED) {
+                count++;
+            }
+        }
+        this.reachable = count;
+        this.buildNanos = System.nanoTime() - start;
+        System.out.println("[AI] Perfect-play table built: " + reachable + " positions in "
+            + buildNanos / 1000 + " us.");
+    }
+
+    /**
+     * @return the shared table, built on first use
+     */
+    public static PerfectPlayTable get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param xMask X stones (bit i = cell i)
+     * @param oMask O stones
+     * @return base-3 index of the position
+     */
+    public static int index(int xMask, int oMask) {
+        int index = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            int bit = 1 << cell;
+            if ((xMask & bit) != 0) {
+                index += POW3[cell];
+            } else if ((oMask & bit) != 0) {
+                index += 2 * POW3[cell];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param xMask X stones
+     * @param oMask O stones
+     * @return an optimal cell for the side to move, or -1 if the game is over
+     *         or the position cannot arise in play
+     */
+    public int bestMove(int xMask, int oMask) {
+        return bestMoves[index(xMask, oMask)];
+    }
+
+    /**
+     * @param xMask X stones
+     * @param oMask O stones
+     * @return 1 if the side to move wins with perfect play, 0 for a draw, -1 for a loss
+     * @throws IllegalArgumentException if the position cannot arise in play
+     */
+    public int value(int xMask, int oMask) {
+        byte score = scores[index(xMask, oMask)];
+        if (score == UNREACHED) {
+            throw new IllegalArgumentException("Unreachable position");
+        }
+        return Integer.signum(score);
+    }
+
+    /**
+     * @return number of reachable positions in the table
+     */
+    public int size() {
+        return reachable;
+    }
+
+    /**
+     * @return time taken to build the table
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Negamax with memoization on the base-3 index.
+     * @return score for the side to move
+     */
+    private int solve(int xMask, int oMask, int index) {
+        if (scores[index] != UNREACHED) {
+            return scores[index];
+        }
+
+        int stones = Integer.bitCount(xMask | oMask);
+        boolean xToMove = (stones & 1) == 0;
+        int lastMover = xToMove ? oMask : xMask;
+
+        int best;
+        int bestMove = -1;
+        if (BitBoard.isWin(lastMover)) {
+            best = -(10 - stones);
+        } else if (stones == BitBoard.CELLS) {
+            best = 0;
+        } else {
+            best = Integer.MIN_VALUE;
+            for (int cell : MOVE_ORDER) {
+                int bit = 1 << cell;
+                if (((xMask | oMask) & bit) != 0) {
+                    continue;
+                }
+                int score = xToMove
+                    ? -solve(xMask | bit, oMask, index + POW3[cell])
+                    : -solve(xMask, oMask | bit, index + 2 * POW3[cell]);
+                if (score > best) {
+                    best = score;
+                    bestMove = cell;
+                }
+            }
+        }
+
+        scores[index] = (byte) best;
+        bestMoves[index] = (byte) bestMove;
+        return best;
+    }
+}
@@ -0,0 +1,111 @@
+// src/server/PositionCache.java
+package server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of results per position, shared by all games.
+ *
+ * Keys are canonical position keys (see {@link BoardSymmetry#keyOf}), so a
+ * rotated or mirrored position finds the entry of the one first cached.
+ * The cache is 2-way set-associative over one long[]: a new key goes in
+ * the first way and pushes the old first way into the second, evicting
+ * the oldest of the two. Like {@link TranspositionTable}, each way is
+ * written as key^value then value and checked on read, so lookups and
+ * stores take no lock; a torn entry reads as a miss.
+ */
+public final class PositionCache {
+    private final long[] entries; // per set: key0^value0, value0, key1^value1, value1
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity number of entries, rounded up to a power of two (at least 2)
+     */
+    public PositionCache(int capacity) {
+        if (capacity < 2 || capacity > (1 << 28)) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^28");
+        }
+        int sets = Integer.highestOneBit(capacity - 1);
+        this.entries = new long[sets * 4];
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * @param key canonical position key
+     * @return the cached value, or 0 on a miss
+     */
+    public long lookup(long key) {
+        int base = setOf(key);
+        long value = entries[base + 1];
+        if (value != 0 && (entries[base] ^ value) == key) {
+            hits.increment();
+            return value;
+        }
+        value = entries[base + 3];
+        if (value != 0 && (entries[base + 2] ^ value) == key) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * Caches a value, replacing any entry for the same key.
+     * @param key canonical position key
+     * @param value nonzero value
+     */
+    public void store(long key, long value) {
+        if (value == 0) {
+            throw new IllegalArgumentException("Zero marks an empty entry");
+        }
+        int base = setOf(key);
+        long first = entries[base + 1];
+        long firstKey = entries[base] ^ first;
+        if (first != 0 && firstKey != key) {
+            // Age the first way into the second unless this key already lives there
+            long second = entries[base + 3];
+            if (second == 0 || (entries[base + 2] ^ second) != key) {
+                entries[base + 2] = firstKey ^ first;
+                entries[base + 3] = first;
+            } else {
+                entries[base + 2] = key ^ value;
+                entries[base + 3] = value;
+                return;
+            }
+        }
+        entries[base] = key ^ value;
+        entries[base + 1] = value;
+    }
+
+    private int setOf(long key) {
+        // The low 3 bits of a canonical key are always zero
+        return ((int) ((key >>> 3) ^ (key >>> 35)) & setMask) << 2;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return hits per lookup, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * @return number of entries the cache can hold
+     */
+    public int capacity() {
+        return (setMask + 1) * 2;
+    }
+}
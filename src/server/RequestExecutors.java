@@ -0,0 +1,82 @@
+// src/server/RequestExecutors.java
+package server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors that run server requests.
+ * On Java 21 and later every request gets its own virtual thread, so a
+ * call that blocks (a long poll, a contended game lock) parks for the cost
+ * of a small heap object instead of holding a platform thread. Older
+ * runtimes fall back to a fixed pool of platform threads. Virtual threads
+ * are reached by reflection so the server still builds and runs on Java 17.
+ */
+public final class RequestExecutors {
+    // Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory()
+    // and Executors.newThreadPerTaskExecutor(ThreadFactory); null when unavailable
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method PER_TASK;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method perTask = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // Java 19 and 20 have the methods but refuse them without --enable-preview
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        PER_TASK = perTask;
+    }
+
+    private RequestExecutors() {
+    }
+
+    /**
+     * @return true if requests run on virtual threads
+     */
+    public static boolean virtualThreadsAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task, or a fixed
+     * pool of daemon platform threads if virtual threads are unavailable.
+     * @param namePrefix thread name prefix; threads are numbered from 0
+     * @param fallbackThreads pool size on runtimes without virtual threads
+     * @return the executor
+     */
+    public static ExecutorService newRequestExecutor(String namePrefix, int fallbackThreads) {
+        if (OF_VIRTUAL != null) {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+                return (ExecutorService) PER_TASK.invoke(null, (ThreadFactory) FACTORY.invoke(builder));
+            } catch (ReflectiveOperationException e) {
+                System.err.println("[Executors] Virtual threads unavailable, using a pool: " + e);
+            }
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(fallbackThreads, r -> {
+            Thread t = new Thread(r, namePrefix + count.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
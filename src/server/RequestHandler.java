@@ -0,0 +1,55 @@
+// src/server/RequestHandler.java
+package server;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Anything that can carry a service call to its target.
+ * Implemented by the in-process {@link ServerDispatcher} and by
+ * network transports that forward calls to a remote dispatcher.
+ */
+public interface RequestHandler {
+    /**
+     * Handles a method call request.
+     * @param serviceName the service to call
+     * @param opcode the method opcode (see {@link ServerDispatcher#opcode(String)})
+     * @param params method parameters
+     * @return the result of the method call
+     */
+    Object handleRequest(String serviceName, int opcode, Object... params);
+
+    /**
+     * Runs several calls on one service, in order, as one request.
+     * Calls are not atomic: other callers' calls may run in between.
+     * @param serviceName the service to call
+     * @param opcodes one opcode per call
+     * @param params one parameter array per call
+     * @return one result per call
+     */
+    default Object[] handleBatch(String serviceName, int[] opcodes, Object[][] params) {
+        Object[] results = new Object[opcodes.length];
+        for (int i = 0; i < opcodes.length; i++) {
+            results[i] = handleRequest(serviceName, opcodes[i], params[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Sends a call without waiting for it to finish. Network transports
+     * keep several calls in flight; the server may run them in any order,
+     * so calls that depend on each other belong in one batch.
+     * In-process handlers run the call before returning.
+     * @return future completed with the call's result
+     */
+    default CompletableFuture<Object> submitRequest(String serviceName, int opcode, Object... params) {
+        return CompletableFuture.completedFuture(handleRequest(serviceName, opcode, params));
+    }
+
+    /**
+     * Sends a batch without waiting for it to finish (see {@link #submitRequest}).
+     * @return future completed with one result per call
+     */
+    default CompletableFuture<Object[]> submitBatch(String serviceName, int[] opcodes, Object[][] params) {
+        return CompletableFuture.completedFuture(handleBatch(serviceName, opcodes, params));
+    }
+}
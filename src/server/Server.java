@@ -3,20 +3,56 @@ package server;
 
 import client.ServiceReference;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
 /**
  * Server that hosts the Tic-Tac-Toe game service.
- * Provides service references to clients on request.
+ * Provides service references to clients on request. References are
+ * interned: every request for a name gets the same immutable object.
  */
 public class Server {
+    public static final int DEFAULT_PORT = 1099;
+    public static final int DEFAULT_METRICS_PORT = 9464;
+    public static final String METRICS_PORT_PROPERTY = "metrics.port";
+    public static final String DEFAULT_JOURNAL_FILE = "tictactoe.journal";
+    public static final String JOURNAL_FILE_PROPERTY = "journal.file";
+    public static final String JOURNAL_SYNC_PROPERTY = "journal.sync";
+    public static final String JOURNAL_SYNC_MILLIS_PROPERTY = "journal.sync.millis";
+
     private ServerDispatcher dispatcher;
     private TicTacToeService gameService;
+    private GameSessionManager sessionManager;
+    private NioServer networkServer;
+    private MoveJournal journal;
+
+    // One reference per service name; entries for expired games are pruned as it grows
+    private static final int MIN_PRUNE_SIZE = 256;
+    private final Map<String, ServiceReference> references = new ConcurrentHashMap<>();
+    private volatile int pruneSize = MIN_PRUNE_SIZE;
 
     public Server() {
+        this(TicTacToeService::new);
+    }
+
+    /**
+     * @param gameFactory creates the games hosted through {@link #createGame()},
+     *                    e.g. {@code LockFreeTicTacToeService::new}
+     */
+    public Server(Supplier<? extends GameService> gameFactory) {
         this.dispatcher = new ServerDispatcher();
         this.gameService = new TicTacToeService();
+        this.sessionManager = new GameSessionManager(gameFactory);
         
         // Register the game service with the dispatcher
         dispatcher.registerService("TicTacToeGame", gameService);
+        dispatcher.registerService(GameLobby.SERVICE_NAME, new GameLobby(sessionManager));
+        dispatcher.setSessionManager(sessionManager);
         
         System.out.println("[Server] Tic-Tac-Toe server initialized.");
     }
@@ -28,12 +64,94 @@ public class Server {
      */
     public ServiceReference requestService(String serviceName) {
         System.out.println("[Server] Service request received for: " + serviceName);
-        
-        // Create and return a service reference
-        ServiceReference ref = new ServiceReference(serviceName, dispatcher);
+        return intern(serviceName);
+    }
+
+    /**
+     * Creates a new independent game and returns a reference to it.
+     * @return ServiceReference addressing the new game
+     */
+    public ServiceReference createGame() {
+        long gameId = sessionManager.createGame();
+        return intern(GameSessionManager.serviceName(gameId));
+    }
+
+    /**
+     * Creates a new independent game on an m x n board where k in a row wins.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @return ServiceReference addressing the new game
+     * @throws IllegalArgumentException if the sizes are out of range
+     */
+    public ServiceReference createGame(int rows, int cols, int winLength) {
+        long gameId = sessionManager.createGame(rows, cols, winLength);
+        return intern(GameSessionManager.serviceName(gameId));
+    }
+
+    /**
+     * @return the shared reference for a service name, or null if no such service is hosted
+     */
+    private ServiceReference intern(String serviceName) {
+        // Unknown names get no entry, so they cannot grow the map
+        if (!dispatcher.hasService(serviceName)) {
+            return null;
+        }
+        ServiceReference ref = references.get(serviceName);
+        if (ref != null) {
+            return ref;
+        }
+        ref = references.computeIfAbsent(serviceName, name -> new ServiceReference(name, dispatcher));
+        if (references.size() > pruneSize) {
+            pruneReferences();
+        }
         return ref;
     }
 
+    /**
+     * Drops references to hosted games that have expired.
+     */
+    private void pruneReferences() {
+        references.keySet().removeIf(name -> {
+            long gameId = GameSessionManager.parseGameId(name);
+            return gameId > 0 && !sessionManager.hasGame(gameId);
+        });
+        pruneSize = Math.max(MIN_PRUNE_SIZE, references.size() * 2);
+    }
+
+    /**
+     * Rebuilds the games recorded in a journal, then journals every later
+     * move, reset, created and removed game. Call before clients connect.
+     * @param file the journal; created if missing
+     * @param policy when records are forced to disk
+     * @param syncIntervalMillis force interval for {@link MoveJournal.SyncPolicy#INTERVAL}
+     * @return the open journal
+     * @throws IOException if the journal cannot be read or written
+     */
+    public MoveJournal openJournal(Path file, MoveJournal.SyncPolicy policy, long syncIntervalMillis)
+            throws IOException {
+        long start = System.nanoTime();
+        journal = sessionManager.openJournal(file, policy, syncIntervalMillis, gameService);
+        MoveJournal.Recovery recovery = journal.getRecovery();
+        System.out.println("[Server] Recovered " + recovery.getGames() + " game(s) from "
+            + recovery.getRecordsKept() + " of " + recovery.getRecordsRead() + " journal record(s) in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms"
+            + (recovery.getRecordsSkipped() > 0 ? "; skipped " + recovery.getRecordsSkipped() + " unreadable." : "."));
+        return journal;
+    }
+
+    /**
+     * Exposes the dispatcher to remote clients over TCP.
+     * @param port the port to listen on (0 for any free port)
+     * @return the running network server
+     * @throws IOException if the port cannot be bound
+     */
+    public NioServer startNetwork(int port) throws IOException {
+        networkServer = new NioServer(dispatcher, port);
+        networkServer.start();
+        return networkServer;
+    }
+
     public ServerDispatcher getDispatcher() {
         return dispatcher;
     }
@@ -41,4 +159,53 @@ public class Server {
     public TicTacToeService getGameService() {
         return gameService;
     }
-}
\ No newline at end of file
+
+    public GameSessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    /**
+     * @return the journal opened by {@link #openJournal}, or null
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Runs a standalone server process. Metrics are registered as JMX
+     * MBeans and served at http://localhost:{@value #DEFAULT_METRICS_PORT}/metrics; set the
+     * {@value #METRICS_PORT_PROPERTY} system property to change the port,
+     * or to -1 to turn the endpoint off.
+     * Games are journaled to {@value #DEFAULT_JOURNAL_FILE} and recovered
+     * from it on start; {@value #JOURNAL_FILE_PROPERTY} names another file,
+     * or "none" for no journal. {@value #JOURNAL_SYNC_PROPERTY} picks the
+     * sync policy (none, interval or always; default interval) and
+     * {@value #JOURNAL_SYNC_MILLIS_PROPERTY} the interval.
+     * @param args optional port (default 1099)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Server server = new Server();
+        String journalFile = System.getProperty(JOURNAL_FILE_PROPERTY, DEFAULT_JOURNAL_FILE);
+        if (!journalFile.equals("none")) {
+            MoveJournal.SyncPolicy policy = MoveJournal.SyncPolicy.valueOf(
+                System.getProperty(JOURNAL_SYNC_PROPERTY, "interval").toUpperCase(Locale.ROOT));
+            long syncMillis = Long.getLong(JOURNAL_SYNC_MILLIS_PROPERTY, MoveJournal.DEFAULT_SYNC_INTERVAL_MILLIS);
+            MoveJournal journal = server.openJournal(Paths.get(journalFile), policy, syncMillis);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("[Server] Could not close journal: " + e.getMessage());
+                }
+            }, "journal-close"));
+        }
+        DispatcherMetrics metrics = server.getDispatcher().getMetrics();
+        metrics.registerMBeans();
+        int metricsPort = Integer.getInteger(METRICS_PORT_PROPERTY, DEFAULT_METRICS_PORT);
+        if (metricsPort >= 0) {
+            metrics.startHttpEndpoint(metricsPort);
+        }
+        server.startNetwork(port);
+    }
+}
@@ -1,18 +1,24 @@
 // src/server/ServerDispatcher.java
 package server;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Dispatches client requests to appropriate service methods.
  * Acts as the RMI skeleton, routing method calls.
+ * Each service class's public methods are resolved once into a
+ * method-handle table indexed by opcode (see {@link DispatchTable}).
+ * Every call is counted and timed in {@link DispatcherMetrics}.
  */
-public class ServerDispatcher {
+public class ServerDispatcher implements RequestHandler {
     private Map<String, Object> services;
+    private GameSessionManager sessionManager;
+    private final DispatcherMetrics metrics = new DispatcherMetrics();
 
     public ServerDispatcher() {
-        this.services = new HashMap<>();
+        this.services = new ConcurrentHashMap<>();
     }
 
     /**
@@ -21,10 +27,21 @@ public class ServerDispatcher {
      * @param serviceObject the service implementation
      */
     public void registerService(String serviceName, Object serviceObject) {
+        DispatchTable.prepare(serviceObject.getClass());
         services.put(serviceName, serviceObject);
+        metrics.addService(serviceName);
         System.out.println("[Dispatcher] Service '" + serviceName + "' registered.");
     }
 
+    /**
+     * Routes per-game service names (see {@link GameSessionManager#serviceName(long)})
+     * to the given session manager.
+     * @param sessionManager the manager hosting per-game instances
+     */
+    public void setSessionManager(GameSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
     /**
      * Handles a remote method call request.
      * @param serviceName the service to call
@@ -33,43 +50,205 @@ public class ServerDispatcher {
      * @return the result of the method call
      */
     public Object handleRequest(String serviceName, String methodName, Object... params) {
-        Object service = services.get(serviceName);
+        int opcode = DispatchTable.lookupOpcode(methodName);
+        if (opcode < 0) {
+            return "Error: Unknown method '" + methodName + "'.";
+        }
+        return handleRequest(serviceName, opcode, params);
+    }
+
+    /**
+     * Handles a remote method call request by opcode.
+     * @param serviceName the service to call
+     * @param opcode the method opcode (see {@link #opcode(String)})
+     * @param params method parameters
+     * @return the result of the method call
+     */
+    @Override
+    public Object handleRequest(String serviceName, int opcode, Object... params) {
+        long start = System.nanoTime();
+        Object service = resolveService(serviceName);
         
         if (service == null) {
+            metrics.record(serviceName, null, opcode, start, true);
             return "Error: Service '" + serviceName + "' not found.";
         }
+        return invoke(serviceName, service, opcode, params, start);
+    }
+
+    /**
+     * Runs several calls on one service in order, looking the service up once.
+     * Calls are not atomic: other callers' calls may run in between.
+     * @param serviceName the service to call
+     * @param opcodes one opcode per call
+     * @param params one parameter array per call
+     * @return one result per call
+     */
+    @Override
+    public Object[] handleBatch(String serviceName, int[] opcodes, Object[][] params) {
+        Object[] results = new Object[opcodes.length];
+        Object service = resolveService(serviceName);
+        for (int i = 0; i < opcodes.length; i++) {
+            long start = System.nanoTime();
+            if (service == null) {
+                metrics.record(serviceName, null, opcodes[i], start, true);
+                results[i] = "Error: Service '" + serviceName + "' not found.";
+            } else {
+                results[i] = invoke(serviceName, service, opcodes[i], params[i], start);
+            }
+        }
+        return results;
+    }
 
-        // For TicTacToeService
-        if (service instanceof TicTacToeService) {
-            TicTacToeService gameService = (TicTacToeService) service;
-            
-            switch (methodName) {
-                case "makeMove":
-                    if (params.length >= 2) {
-                        char player = (Character) params[0];
-                        int position = (Integer) params[1];
-                        return gameService.makeMove(player, position);
-                    }
-                    return "Error: Invalid parameters for makeMove.";
-                    
-                case "getBoard":
-                    return gameService.getBoard();
-                    
-                case "getStatus":
-                    return gameService.getStatus();
-                    
-                case "getCurrentPlayer":
-                    return gameService.getCurrentPlayer();
-                    
-                case "resetGame":
-                    gameService.resetGame();
-                    return "Game reset successfully";
-                    
-                default:
-                    return "Error: Unknown method '" + methodName + "'.";
+    /**
+     * Runs a batch of calls named by method, as decoded from the wire.
+     * @param serviceName the service to call
+     * @param methodNames one method name per call
+     * @param params one parameter array per call
+     * @return one result per call
+     */
+    public Object[] handleBatch(String serviceName, String[] methodNames, Object[][] params) {
+        int[] opcodes = new int[methodNames.length];
+        for (int i = 0; i < methodNames.length; i++) {
+            opcodes[i] = DispatchTable.lookupOpcode(methodNames[i]);
+        }
+        Object[] results = handleBatch(serviceName, opcodes, params);
+        for (int i = 0; i < methodNames.length; i++) {
+            if (opcodes[i] < 0) {
+                results[i] = "Error: Unknown method '" + methodNames[i] + "'.";
             }
         }
+        return results;
+    }
 
-        return "Error: Unknown service type.";
+    /**
+     * Calls the method and records the call, failed if it threw or returned an error message.
+     */
+    private Object invoke(String serviceName, Object service, int opcode, Object[] params, long start) {
+        boolean failed = true;
+        try {
+            Object result = invoke(service, opcode, params);
+            failed = result instanceof String && ((String) result).startsWith("Error:");
+            return result;
+        } finally {
+            metrics.record(serviceName, service, opcode, start, failed);
+        }
+    }
+
+    private Object invoke(Object service, int opcode, Object[] params) {
+        DispatchTable.Entry method = DispatchTable.lookup(service, opcode);
+        if (method == null) {
+            return "Error: Unknown method '" + DispatchTable.methodName(opcode) + "'.";
+        }
+        if (params.length < method.arity) {
+            return "Error: Invalid parameters for " + method.methodName + ".";
+        }
+        if (params.length > method.arity) {
+            params = Arrays.copyOf(params, method.arity);
+        }
+        // Checked here so the handle never fails on its own arguments;
+        // anything the method body throws is the service's, not the caller's
+        if (!method.accepts(params)) {
+            return "Error: Invalid parameters for " + method.methodName + ".";
+        }
+
+        try {
+            return method.invoker.invokeExact(service, params);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Subscribes a listener to a game's move, game-over and reset events.
+     * @param serviceName the game service
+     * @param listener the listener
+     * @return true if the service exists and supports events
+     */
+    public boolean subscribe(String serviceName, GameListener listener) {
+        Object service = resolveService(serviceName);
+        if (service instanceof GameService) {
+            ((GameService) service).addGameListener(listener);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a listener added with {@link #subscribe}.
+     * @param serviceName the game service
+     * @param listener the listener
+     */
+    public void unsubscribe(String serviceName, GameListener listener) {
+        Object service = resolveService(serviceName);
+        if (service instanceof GameService) {
+            ((GameService) service).removeGameListener(listener);
+        }
+    }
+
+    /**
+     * Returns the opcode clients use to call a method by number.
+     * Opcodes are stable for the lifetime of the process.
+     * @param methodName the method name
+     * @return the opcode
+     */
+    public static int opcode(String methodName) {
+        return DispatchTable.opcode(methodName);
+    }
+
+    /**
+     * @param opcode an opcode returned by {@link #opcode(String)}
+     * @return the method name, or null if unassigned
+     */
+    public static String methodName(int opcode) {
+        return DispatchTable.methodName(opcode);
+    }
+
+    /**
+     * @return the counts and latencies of every call dispatched so far
+     */
+    public DispatcherMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Looks up a hosted game by ID.
+     * @param gameId the game ID
+     * @return the game, or null if unknown or no session manager is set
+     */
+    GameService getGame(long gameId) {
+        return sessionManager != null ? sessionManager.getGame(gameId) : null;
+    }
+
+    /**
+     * Checks whether a name resolves to a registered service or a hosted
+     * game, without marking the game as used.
+     * @param serviceName the service name
+     * @return true if calls to the name would reach a service
+     */
+    boolean hasService(String serviceName) {
+        if (services.containsKey(serviceName)) {
+            return true;
+        }
+        long gameId = GameSessionManager.parseGameId(serviceName);
+        return gameId > 0 && sessionManager != null && sessionManager.hasGame(gameId);
+    }
+
+    /**
+     * Finds a registered service, falling back to hosted games.
+     * @param serviceName the service name
+     * @return the service object, or null if not found
+     */
+    Object resolveService(String serviceName) {
+        Object service = services.get(serviceName);
+        if (service == null && sessionManager != null) {
+            long gameId = GameSessionManager.parseGameId(serviceName);
+            if (gameId > 0) {
+                service = sessionManager.getGame(gameId);
+            }
+        }
+        return service;
     }
 }
\ No newline at end of file
@@ -1,152 +1,487 @@
 // src/server/TicTacToeService.java
 package server;
 
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Core game logic for Tic-Tac-Toe.
- * Thread-safe implementation with synchronized methods.
+ * Thread-safe: every method runs under one {@link ReentrantLock}, and
+ * {@link #awaitChange} waits on a condition of it, so a waiting virtual
+ * thread unmounts instead of pinning its carrier.
+ * The board is kept as a pair of bitboards (see {@link BitBoard}).
+ * State changes are pushed to registered {@link GameListener}s; callers
+ * that cannot take pushes can read or wait conditionally on the version.
+ * Moves are logged through {@link AsyncLogger} after the lock is released.
+ * With a {@link MoveJournal} attached, accepted moves, resets and AI
+ * changes are appended to it under the lock, before the state changes.
  */
-public class TicTacToeService {
-    private char[] board;
+public class TicTacToeService implements GameService {
+    /** Longest time {@link #awaitChange} blocks a caller. */
+    public static final long MAX_AWAIT_MILLIS = 30_000;
+
+    private static final AsyncLogger LOG = AsyncLogger.shared();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final GameBoard board;
     private char currentPlayer;
-    private String status;
+    private GameOutcome outcome;
+    private long version;
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<AiPlayer> aiPlayer = new AtomicReference<>();
+    // Guarded by lock
+    private MoveJournal journal;
+    private long journalId;
 
     public TicTacToeService() {
-        this.board = new char[9];
-        for (int i = 0; i < 9; i++) {
-            board[i] = '-';
-        }
+        this(new BitBoard());
+    }
+
+    /**
+     * Creates a game on an m x n board where k in a row wins.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     * @throws IllegalArgumentException if the sizes are out of range
+     */
+    public TicTacToeService(int rows, int cols, int winLength) {
+        this(rows == 3 && cols == 3 && winLength == 3 ? new BitBoard() : new MnkBoard(rows, cols, winLength));
+    }
+
+    private TicTacToeService(GameBoard board) {
+        this.board = board;
         this.currentPlayer = 'X';
-        this.status = "IN_PROGRESS";
+        this.outcome = GameOutcome.IN_PROGRESS;
     }
 
     /**
      * Makes a move on the board.
      * @param player the player making the move
-     * @param position the position (0-8)
+     * @param position the position (0 to cells - 1)
      * @return result message
      */
-    public synchronized String makeMove(char player, int position) {
+    public String makeMove(char player, int position) {
+        return MoveResult.describe(play(player, position), board.getCellCount());
+    }
+
+    /**
+     * Makes a move and reports the result without building any text.
+     * Listeners are notified after the lock is released.
+     * @param player the player making the move
+     * @param position the position (0 to cells - 1)
+     * @return move word: the {@link MoveResult} plus the state right after the call
+     * @throws UncheckedIOException if the move was applied but the journal could not force it to disk
+     */
+    public long play(char player, int position) {
+        MoveResult result;
+        long word;
+        GameOutcome ended;
+        GameEvent event;
+        MoveJournal journaledTo;
+        long journaledAt = 0;
+
+        lock.lock();
+        try {
+            result = check(player, position);
+            if (result != null) {
+                return result.with(getStateWord());
+            }
+
+            // Journal first: if the append fails, the move fails and the game is unchanged
+            journaledTo = journal;
+            if (journaledTo != null) {
+                journaledAt = journaledTo.appendMove(journalId, player, position);
+            }
+            result = apply(player, position);
+
+            word = getStateWord();
+            ended = outcome;
+            event = listeners.isEmpty() ? null : new GameEvent(
+                result == MoveResult.ACCEPTED ? GameEvent.Type.MOVE : GameEvent.Type.GAME_OVER,
+                player, position, getSnapshot());
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (journaledTo != null) {
+                journaledTo.awaitDurable(journaledAt);
+            }
+        } finally {
+            // The move is applied either way, so it is logged and announced even if the force failed
+            LOG.log(AsyncLogger.Level.INFO, "Game", "Player {} moved to position {}", player, position);
+            if (result != MoveResult.ACCEPTED) {
+                LOG.log(AsyncLogger.Level.INFO, "Game", ended.statusText());
+            }
+            fireEvent(event);
+        }
+        return result.with(word);
+    }
+
+    /**
+     * Validates a move; call with the lock held.
+     * @return the rejection, or null if the move is legal
+     */
+    private MoveResult check(char player, int position) {
         // Check if game is over
-        if (!status.equals("IN_PROGRESS")) {
-            return "Game is already over. Status: " + status;
+        if (outcome != GameOutcome.IN_PROGRESS) {
+            return MoveResult.GAME_OVER;
         }
 
         // Validate turn
         if (player != currentPlayer) {
-            return "Not your turn! Current player: " + currentPlayer;
+            return MoveResult.NOT_YOUR_TURN;
         }
 
         // Validate position
-        if (position < 0 || position > 8) {
-            return "Invalid position! Must be between 0 and 8.";
+        if (position < 0 || position >= board.getCellCount()) {
+            return MoveResult.INVALID_POSITION;
         }
 
         // Check if position is occupied
-        if (board[position] != '-') {
-            return "Position already occupied! Choose another.";
+        if (board.isOccupied(position)) {
+            return MoveResult.OCCUPIED;
         }
+        return null;
+    }
 
-        // Make the move
-        board[position] = player;
-        System.out.println("[Game] Player " + player + " moved to position " + position);
-
-        // Check for win
-        if (checkWin(player)) {
-            status = "Player " + player + " wins!";
-            System.out.println("[Game] " + status);
-            return status;
-        }
+    /**
+     * Makes a legal move; call with the lock held.
+     * @return ACCEPTED, WIN or DRAW
+     */
+    private MoveResult apply(char player, int position) {
+        board.place(player, position);
+        version++;
+        changed.signalAll();
 
-        // Check for draw
-        if (checkDraw()) {
-            status = "Draw!";
-            System.out.println("[Game] " + status);
-            return status;
+        if (board.isWinningMove(position)) {
+            // Check for win
+            outcome = GameOutcome.winFor(player);
+            return MoveResult.WIN;
+        } else if (board.isFull()) {
+            // Check for draw
+            outcome = GameOutcome.DRAW;
+            return MoveResult.DRAW;
         }
-
         // Switch player
         currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
-        return "Move accepted. Next player: " + currentPlayer;
+        return MoveResult.ACCEPTED;
     }
 
     /**
      * Gets the current board state.
      * @return copy of the board array
      */
-    public synchronized char[] getBoard() {
-        return board.clone();
+    public char[] getBoard() {
+        lock.lock();
+        try {
+            return board.toCharArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets board, current player, status and version in one call.
+     * @return immutable snapshot taken under a single lock acquisition
+     */
+    public GameSnapshot getSnapshot() {
+        lock.lock();
+        try {
+            return GameSnapshot.ofOwned(board.toCharArray(), currentPlayer, outcome, version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets a snapshot only if the state moved past a version the caller has seen.
+     * @param sinceVersion the last version the caller rendered
+     * @return snapshot, or null if the version is still sinceVersion
+     */
+    public GameSnapshot getSnapshotIfChanged(long sinceVersion) {
+        lock.lock();
+        try {
+            return version == sinceVersion ? null : getSnapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the state moves past a version or the timeout passes.
+     * @param sinceVersion the last version the caller rendered
+     * @param timeoutMillis how long to wait, capped at {@link #MAX_AWAIT_MILLIS}
+     * @return snapshot, or null if nothing changed in time
+     */
+    public GameSnapshot awaitChange(long sinceVersion, long timeoutMillis) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(Math.max(timeoutMillis, 0), MAX_AWAIT_MILLIS));
+        lock.lock();
+        try {
+            while (version == sinceVersion) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+            return getSnapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current state version.
+     * @return version, bumped by every accepted move and reset
+     */
+    public long getVersion() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Gets the current game status.
      * @return status string
      */
-    public synchronized String getStatus() {
-        return status;
+    public String getStatus() {
+        lock.lock();
+        try {
+            return outcome.statusText();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current outcome.
+     * @return outcome
+     */
+    public GameOutcome getOutcome() {
+        lock.lock();
+        try {
+            return outcome;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Gets the current player.
      * @return current player character
      */
-    public synchronized char getCurrentPlayer() {
-        return currentPlayer;
+    public char getCurrentPlayer() {
+        lock.lock();
+        try {
+            return currentPlayer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets board, side to move, outcome and version as one word (see {@link GameProtocol}).
+     * @return state word read under a single lock acquisition
+     */
+    public long getStateWord() {
+        lock.lock();
+        try {
+            // Only 3x3 boards fit the packed state; larger ones report turn, outcome and version
+            int xMask = 0;
+            int oMask = 0;
+            if (board instanceof BitBoard) {
+                xMask = ((BitBoard) board).getXMask();
+                oMask = ((BitBoard) board).getOMask();
+            }
+            int state = GameProtocol.packState(xMask, oMask, currentPlayer, outcome.ordinal());
+            return GameProtocol.packWord(state, version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRows() {
+        return board.getRows();
+    }
+
+    public int getCols() {
+        return board.getCols();
+    }
+
+    public int getWinLength() {
+        return board.getWinLength();
     }
 
     /**
      * Resets the game to initial state.
      * @return confirmation message
+     * @throws UncheckedIOException if the game was reset but the journal could not force it to disk
      */    
-    public synchronized String resetGame() {
-        for (int i = 0; i < 9; i++) {
-            board[i] = '-';
+    public String resetGame() {
+        GameEvent event;
+        MoveJournal journaledTo;
+        long journaledAt = 0;
+
+        lock.lock();
+        try {
+            journaledTo = journal;
+            if (journaledTo != null) {
+                journaledAt = journaledTo.appendReset(journalId);
+            }
+            clear();
+
+            event = listeners.isEmpty() ? null : new GameEvent(GameEvent.Type.RESET, (char) 0, -1, getSnapshot());
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (journaledTo != null) {
+                journaledTo.awaitDurable(journaledAt);
+            }
+        } finally {
+            LOG.log(AsyncLogger.Level.INFO, "Game", "Game has been reset.");
+            fireEvent(event);
         }
-        currentPlayer = 'X';
-        status = "IN_PROGRESS";
-        System.out.println("[Game] Game has been reset.");
         return "Game reset successfully.";
     }
+
     /**
-     * Checks if a player has won.
-     * @param player the player to check
-     * @return true if player won, false otherwise
+     * Empties the board; call with the lock held.
      */
-    private boolean checkWin(char player) {
-        // Check rows
-        for (int i = 0; i < 9; i += 3) {
-            if (board[i] == player && board[i + 1] == player && board[i + 2] == player) {
-                return true;
-            }
+    private void clear() {
+        board.clear();
+        currentPlayer = 'X';
+        outcome = GameOutcome.IN_PROGRESS;
+        version++;
+        changed.signalAll();
+    }
+
+    /**
+     * Appends every later accepted move and reset to a journal.
+     * @param journal the journal
+     * @param gameId the ID the game's records carry
+     */
+    void attachJournal(MoveJournal journal, long gameId) {
+        lock.lock();
+        try {
+            this.journal = journal;
+            this.journalId = gameId;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // Check columns
-        for (int i = 0; i < 3; i++) {
-            if (board[i] == player && board[i + 3] == player && board[i + 6] == player) {
-                return true;
+    /**
+     * Applies a journaled move during recovery, without events, logging or journaling.
+     * @return true if the move was legal
+     */
+    boolean replayMove(char player, int position) {
+        lock.lock();
+        try {
+            if (check(player, position) != null) {
+                return false;
             }
+            apply(player, position);
+            return true;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // Check diagonals
-        if (board[0] == player && board[4] == player && board[8] == player) {
-            return true;
+    /**
+     * Applies a journaled reset during recovery, without events, logging or journaling.
+     */
+    void replayReset() {
+        lock.lock();
+        try {
+            clear();
+        } finally {
+            lock.unlock();
         }
-        if (board[2] == player && board[4] == player && board[6] == player) {
-            return true;
+    }
+
+    /**
+     * Lets the built-in perfect-play AI move for one side.
+     * @param side 'X' or 'O', or '-' to turn the AI off
+     * @return confirmation message
+     * @throws UncheckedIOException if the AI was changed but the journal could not force it to disk
+     */
+    public String setAiPlayer(char side) {
+        MoveJournal journaledTo;
+        long journaledAt = 0;
+        AiPlayer ai;
+
+        lock.lock();
+        try {
+            journaledTo = journal;
+            if (journaledTo != null) {
+                journaledAt = journaledTo.appendAiPlayer(journalId, side == 'X' || side == 'O' ? side : '-');
+            }
+            // Swapped under the same lock, so concurrent calls install in journal order
+            ai = AiPlayer.attach(this, aiPlayer, side);
+        } finally {
+            lock.unlock();
         }
 
-        return false;
+        // Started outside the lock: on 3x3 the AI plays at once, and its move waits for the force
+        String reply = AiPlayer.start(ai);
+        if (journaledTo != null) {
+            journaledTo.awaitDurable(journaledAt);
+        }
+        return reply;
     }
 
     /**
-     * Checks if the game is a draw.
-     * @return true if board is full, false otherwise
+     * Reinstalls a journaled AI after recovery, without journaling it again.
+     * Call once the journal is attached: the AI moves at once if it is due.
+     * @param side 'X' or 'O'
      */
-    private boolean checkDraw() {
-        for (char cell : board) {
-            if (cell == '-') {
-                return false;
+    void restoreAiPlayer(char side) {
+        AiPlayer.install(this, aiPlayer, side);
+    }
+
+    /**
+     * Registers a listener for move, game-over and reset events.
+     * @param listener the listener
+     */
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     * @param listener the listener
+     */
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to every listener; a failing listener does not affect the others.
+     */
+    private void fireEvent(GameEvent event) {
+        if (event == null) {
+            return;
+        }
+        for (GameListener listener : listeners) {
+            try {
+                listener.onGameEvent(event);
+            } catch (RuntimeException e) {
+                LOG.log(AsyncLogger.Level.WARN, "Game", "Listener failed: {}", e);
             }
         }
-        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+// src/server/TranspositionTable.java
+package server;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results keyed by Zobrist hash.
+ *
+ * Each entry is two longs in one flat array: the key XORed with the data,
+ * then the data. A reader only trusts an entry whose two halves XOR back
+ * to its key, so threads can share the table without locks; a torn write
+ * just reads as a miss.
+ *
+ * Data layout: score in bits 0-31, best move in bits 32-47, depth in
+ * bits 48-55, bound type in bits 56-57.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param capacity number of entries, rounded up to a power of two
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > (1 << 28)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^28");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new long[size * 2];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param key Zobrist hash of the position
+     * @return the entry's data, or 0 if there is none for this key
+     */
+    public long probe(long key) {
+        int slot = ((int) (key ^ (key >>> 32)) & mask) << 1;
+        long data = entries[slot + 1];
+        return (entries[slot] ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Stores a result. An entry for the same position is only replaced by
+     * an equal or deeper search; other positions are always replaced.
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int slot = ((int) (key ^ (key >>> 32)) & mask) << 1;
+        long old = entries[slot + 1];
+        if ((entries[slot] ^ old) == key && depthOf(old) > depth) {
+            return;
+        }
+        long data = (score & 0xFFFFFFFFL)
+            | ((long) (move & 0xFFFF) << 32)
+            | ((long) depth << 48)
+            | ((long) bound << 56);
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public static int scoreOf(long data) {
+        return (int) data;
+    }
+
+    /**
+     * @return stored best move, or -1 if none
+     */
+    public static int moveOf(long data) {
+        int move = (int) (data >>> 32) & 0xFFFF;
+        return move == 0xFFFF ? -1 : move;
+    }
+
+    public static int depthOf(long data) {
+        return (int) (data >>> 48) & 0xFF;
+    }
+
+    /**
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}; 0 for a miss
+     */
+    public static int boundOf(long data) {
+        return (int) (data >>> 56) & 3;
+    }
+}
@@ -0,0 +1,313 @@
+// src/server/WireCodec.java
+package server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Frame encoding shared by {@link NioServer} and the client transport.
+ *
+ * Every frame is: int length (of the rest), int request id, byte type, payload.
+ * A call payload carries the service name, method name and tagged parameters;
+ * a batch payload carries the service name and a list of such calls;
+ * a result payload carries one tagged value (an Object[] for a batch).
+ */
+public class WireCodec {
+    public static final int HEADER_BYTES = 4;
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+
+    public static final byte TYPE_CALL = 1;
+    public static final byte TYPE_RESULT = 2;
+    // 3 and 4 are the fixed-size frames of GameProtocol
+    public static final byte TYPE_BATCH = 5;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_CHAR = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_BOOLEAN = 5;
+    private static final byte TAG_CHAR_ARRAY = 6;
+    private static final byte TAG_SNAPSHOT = 7;
+    private static final byte TAG_ARRAY = 8;
+
+    private WireCodec() {
+    }
+
+    /**
+     * Encodes a call frame.
+     * @param requestId id echoed back in the result frame
+     * @param serviceName the service to call
+     * @param methodName the method to invoke
+     * @param params method parameters
+     * @return buffer ready to be written
+     */
+    public static ByteBuffer encodeCall(int requestId, String serviceName, String methodName, Object[] params) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = beginFrame(bytes, requestId, TYPE_CALL);
+            out.writeUTF(serviceName);
+            out.writeUTF(methodName);
+            out.writeByte(params.length);
+            for (Object param : params) {
+                writeValue(out, param);
+            }
+            return endFrame(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes a batch frame: several calls on one service, answered by one result frame.
+     * @param requestId id echoed back in the result frame
+     * @param serviceName the service to call
+     * @param methodNames one method name per call
+     * @param params one parameter array per call
+     * @return buffer ready to be written
+     */
+    public static ByteBuffer encodeBatch(int requestId, String serviceName, String[] methodNames, Object[][] params) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 16 * methodNames.length);
+            DataOutputStream out = beginFrame(bytes, requestId, TYPE_BATCH);
+            out.writeUTF(serviceName);
+            out.writeShort(methodNames.length);
+            for (int i = 0; i < methodNames.length; i++) {
+                out.writeUTF(methodNames[i]);
+                out.writeByte(params[i].length);
+                for (Object param : params[i]) {
+                    writeValue(out, param);
+                }
+            }
+            return endFrame(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes a result frame.
+     * @param requestId id of the call being answered
+     * @param result the value to send back
+     * @return buffer ready to be written
+     */
+    public static ByteBuffer encodeResult(int requestId, Object result) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = beginFrame(bytes, requestId, TYPE_RESULT);
+            writeValue(out, result);
+            return endFrame(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a frame body (everything after the length prefix) for reading.
+     * @param frame the frame body
+     * @return stream positioned at the payload; request id and type are read by the caller
+     */
+    public static DataInputStream open(byte[] frame) {
+        return new DataInputStream(new ByteArrayInputStream(frame));
+    }
+
+    /**
+     * A decoded call frame.
+     */
+    public static final class Call {
+        public final int requestId;
+        public final String serviceName;
+        public final String methodName;
+        public final Object[] params;
+
+        Call(int requestId, String serviceName, String methodName, Object[] params) {
+            this.requestId = requestId;
+            this.serviceName = serviceName;
+            this.methodName = methodName;
+            this.params = params;
+        }
+    }
+
+    /**
+     * Decodes a call frame body.
+     * @param frame the frame body
+     * @return the decoded call
+     * @throws IOException if the frame is malformed
+     */
+    public static Call decodeCall(byte[] frame) throws IOException {
+        DataInputStream in = open(frame);
+        int requestId = in.readInt();
+        if (in.readByte() != TYPE_CALL) {
+            throw new IOException("Not a call frame");
+        }
+        String serviceName = in.readUTF();
+        String methodName = in.readUTF();
+        Object[] params = new Object[in.readUnsignedByte()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = readValue(in);
+        }
+        return new Call(requestId, serviceName, methodName, params);
+    }
+
+    /**
+     * A decoded batch frame.
+     */
+    public static final class Batch {
+        public final int requestId;
+        public final String serviceName;
+        public final String[] methodNames;
+        public final Object[][] params;
+
+        Batch(int requestId, String serviceName, String[] methodNames, Object[][] params) {
+            this.requestId = requestId;
+            this.serviceName = serviceName;
+            this.methodNames = methodNames;
+            this.params = params;
+        }
+    }
+
+    /**
+     * Decodes a batch frame body.
+     * @param frame the frame body
+     * @return the decoded batch
+     * @throws IOException if the frame is malformed
+     */
+    public static Batch decodeBatch(byte[] frame) throws IOException {
+        DataInputStream in = open(frame);
+        int requestId = in.readInt();
+        if (in.readByte() != TYPE_BATCH) {
+            throw new IOException("Not a batch frame");
+        }
+        String serviceName = in.readUTF();
+        int count = in.readUnsignedShort();
+        String[] methodNames = new String[count];
+        Object[][] params = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            methodNames[i] = in.readUTF();
+            params[i] = new Object[in.readUnsignedByte()];
+            for (int j = 0; j < params[i].length; j++) {
+                params[i][j] = readValue(in);
+            }
+        }
+        return new Batch(requestId, serviceName, methodNames, params);
+    }
+
+    /**
+     * Writes a tagged value.
+     * @param out the output stream
+     * @param value a String, Character, Integer, Long, Boolean, char[], GameSnapshot,
+     *              null, or an Object[] of these
+     * @throws IOException on write failure
+     */
+    public static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TAG_CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof char[]) {
+            out.writeByte(TAG_CHAR_ARRAY);
+            writeChars(out, (char[]) value);
+        } else if (value instanceof GameSnapshot) {
+            GameSnapshot snapshot = (GameSnapshot) value;
+            out.writeByte(TAG_SNAPSHOT);
+            writeChars(out, snapshot.getBoard());
+            out.writeChar(snapshot.getCurrentPlayer());
+            out.writeUTF(snapshot.getStatus());
+            out.writeLong(snapshot.getVersion());
+        } else if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            out.writeByte(TAG_ARRAY);
+            out.writeShort(values.length);
+            for (Object element : values) {
+                writeValue(out, element);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported wire type: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads a tagged value written by {@link #writeValue}.
+     * @param in the input stream
+     * @return the decoded value
+     * @throws IOException if the value is malformed
+     */
+    public static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_CHAR:
+                return in.readChar();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_CHAR_ARRAY:
+                return readChars(in);
+            case TAG_SNAPSHOT:
+                return GameSnapshot.ofOwned(readChars(in), in.readChar(), GameOutcome.ofStatus(in.readUTF()),
+                    in.readLong());
+            case TAG_ARRAY:
+                Object[] values = new Object[in.readUnsignedShort()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue(in);
+                }
+                return values;
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    private static void writeChars(DataOutputStream out, char[] chars) throws IOException {
+        out.writeShort(chars.length);
+        for (char c : chars) {
+            out.writeChar(c);
+        }
+    }
+
+    private static char[] readChars(DataInputStream in) throws IOException {
+        char[] chars = new char[in.readUnsignedShort()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.readChar();
+        }
+        return chars;
+    }
+
+    private static DataOutputStream beginFrame(ByteArrayOutputStream bytes, int requestId, byte type)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // length placeholder
+        out.writeInt(requestId);
+        out.writeByte(type);
+        return out;
+    }
+
+    private static ByteBuffer endFrame(ByteArrayOutputStream bytes) {
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        frame.putInt(0, frame.limit() - HEADER_BYTES);
+        return frame;
+    }
+}
@@ -1,19 +1,29 @@
 // src/ui/GameUI.java
 package ui;
 
-import client.GameServiceProxy;
+import client.AsyncGameServiceProxy;
+import client.LatencyInjector;
+import client.NearCache;
 import client.ServiceReference;
 import registry.Register;
+import server.GameListener;
+import server.GameOutcome;
+import server.GameSnapshot;
+import server.MoveResult;
 import server.Server;
 
 import javax.swing.*;
 import java.awt.*;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Enhanced Graphical User Interface for the Tic-Tac-Toe game.
  * Features: Game timer, round counter, service renewal, and improved controls.
+ * Game calls run asynchronously; results are drawn back on the event thread.
  */
 public class GameUI extends JFrame {
     private JButton[][] buttons;
@@ -26,12 +36,36 @@ public class GameUI extends JFrame {
     private JPanel boardPanel;
     private JPanel controlPanel;
     
-    private GameServiceProxy gameService;
+    private AsyncGameServiceProxy gameService;
     private Register registry;
+    private NearCache nearCache;
     private Server server;
     private boolean gameActive;
     private Timer refreshTimer;
     private Timer gameTimer;
+
+    // Board shape; sizes other than 3x3 are played on a hosted game
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private String hostedGameName;
+
+    // Single-player: the human plays X, the server's AI answers as O
+    private static final char HUMAN_PLAYER = 'X';
+    private static final char AI_PLAYER = 'O';
+
+    private static final int POLL_REFRESH_MS = 500;
+    private static final int FALLBACK_REFRESH_MS = 5000;
+    // Formatters are immutable and thread-safe; build the pattern once
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // Push updates (polling becomes a slow fallback when subscribed)
+    private GameListener gameListener;
+    private AsyncGameServiceProxy eventSource;
+    private boolean pushEnabled;
+    private long renderedVersion = -1;
+    // A poll still waiting for its answer; the timer skips until it arrives
+    private boolean refreshPending;
     
     // Game statistics
     private int currentRound;
@@ -50,6 +84,18 @@ public class GameUI extends JFrame {
     private static final Color WIN_COLOR = new Color(46, 204, 113);
 
     public GameUI() {
+        this(3, 3, 3);
+    }
+
+    /**
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     */
+    public GameUI(int rows, int cols, int winLength) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
         initializeStats();
         initializeComponents();
         setupGame();
@@ -127,16 +173,19 @@ public class GameUI extends JFrame {
 
         // Board Panel
         boardPanel = new JPanel();
-        boardPanel.setLayout(new GridLayout(3, 3, 10, 10));
+        int side = Math.max(rows, cols);
+        int gap = Math.max(1, 30 / side);
+        boardPanel.setLayout(new GridLayout(rows, cols, gap, gap));
         boardPanel.setBackground(BOARD_COLOR);
         boardPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        buttons = new JButton[3][3];
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                final int position = i * 3 + j;
+        buttons = new JButton[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                final int position = i * cols + j;
                 buttons[i][j] = new JButton("");
-                buttons[i][j].setFont(new Font("Arial", Font.BOLD, 60));
+                buttons[i][j].setFont(new Font("Arial", Font.BOLD, Math.max(10, 180 / side)));
+                buttons[i][j].setMargin(new Insets(0, 0, 0, 0));
                 buttons[i][j].setFocusPainted(false);
                 buttons[i][j].setBackground(BUTTON_COLOR);
                 buttons[i][j].setBorder(BorderFactory.createLineBorder(BOARD_COLOR, 2));
@@ -255,38 +304,57 @@ public class GameUI extends JFrame {
             // only create new instance if not already created
             if (registry == null) {
                 registry = new Register();
+                nearCache = new NearCache(registry);
             }
             if (server == null) {
                 server = new Server();
             }
-            String serviceName = "TicTacToeGame";
+            // Hosted games expire once finished, so each round gets a fresh one
+            if (hostedGameName != null) {
+                registry.unbind(hostedGameName);
+                hostedGameName = null;
+            }
+            String serviceName = gameServiceName();
 
             log("Performing service discovery...");
-            ServiceReference ref = registry.lookup(serviceName);
-            
-            if (ref == null) {
+            ServiceReference ref = nearCache.get(serviceName);
+
+            if (ref != null) {
+                log("✓ Service found in near cache.");
+            } else if ((ref = nearCache.lookup(serviceName)) != null) {
+                log("✓ Service found in registry.");
+            } else {
                 log("Service not in registry. Requesting from server...");
                 ref = server.requestService(serviceName);
+                if (ref == null) {
+                    throw new IllegalStateException("Service '" + serviceName + "' not found");
+                }
                 registry.rebind(serviceName, ref);
                 log("✓ Service cached in registry.");
-            } else {
-                log("✓ Service found in registry.");
             }
 
-            gameService = new GameServiceProxy(ref);
+            gameService = new AsyncGameServiceProxy(LatencyInjector.wrapIfConfigured(ref));
             log("✓ Connected to game service via proxy.");
-            
-            gameService.resetGame();
+            connectEvents();
             clearBoard();
 
-            gameActive = true;
-            gameStartTime = System.currentTimeMillis();
-            
-            statusLabel.setText("Game Ready - Player X starts!");
-            log("=== Round " + currentRound + " started ===");
+            // The round starts once the reset has run, so no earlier board is drawn into it
+            onEdt(gameService.submit(gameService.batch().resetGame().setAiPlayer(AI_PLAYER)), results -> {
+                log("✓ " + results[1]);
+                gameActive = true;
+                gameStartTime = System.currentTimeMillis();
 
-            // Start timers
-            startTimers();
+                statusLabel.setText(isClassicBoard()
+                    ? "Game Ready - you are X, the AI plays O!"
+                    : "Game Ready - you are X, the AI plays O! " + winLength + " in a row wins.");
+                log("=== Round " + currentRound + " started ===");
+
+                // Start timers
+                startTimers();
+            }, error -> {
+                log("✗ Error initializing game: " + error.getMessage());
+                statusLabel.setText("Failed to initialize game!");
+            });
 
         } catch (Exception e) {
             log("✗ Error initializing game: " + e.getMessage());
@@ -298,8 +366,11 @@ public class GameUI extends JFrame {
      * Starts the game and refresh timers.
      */
     private void startTimers() {
-        // Refresh timer for board updates
-        refreshTimer = new Timer(500, e -> updateBoardFromService());
+        // Let the first refresh redraw the turn state for the new round
+        renderedVersion = -1;
+
+        // Refresh timer for board updates; only a fallback when events are pushed
+        refreshTimer = new Timer(pushEnabled ? FALLBACK_REFRESH_MS : POLL_REFRESH_MS, e -> updateBoardFromService());
         refreshTimer.start();
 
         // Game timer for elapsed time
@@ -310,6 +381,24 @@ public class GameUI extends JFrame {
         gameTimer.start();
     }
 
+    /**
+     * Subscribes to pushed board changes on the current proxy.
+     */
+    private void connectEvents() {
+        if (gameListener == null) {
+            gameListener = event -> SwingUtilities.invokeLater(() -> renderSnapshot(event.getSnapshot()));
+        }
+        if (eventSource != null) {
+            eventSource.unsubscribe(gameListener);
+        }
+
+        pushEnabled = gameService.subscribe(gameListener);
+        eventSource = gameService;
+        renderedVersion = -1;
+        refreshPending = false;
+        log(pushEnabled ? "✓ Subscribed to game events." : "Push events unavailable - polling for updates.");
+    }
+
     /**
      * Updates the timer display.
      */
@@ -328,43 +417,59 @@ public class GameUI extends JFrame {
             return;
         }
 
-        try {
-            char serviceCurrentPlayer = (Character) gameService.getCurrentPlayer();
-            
-            log("Player " + serviceCurrentPlayer + " attempting move at position " + position);
-            String result = (String) gameService.makeMove(serviceCurrentPlayer, position);
-            log("→ " + result);
+        log("Player " + HUMAN_PLAYER + " attempting move at position " + position);
+        // Move and fresh board in one round trip; the move itself checks the turn
+        onEdt(gameService.submit(gameService.batch().play(HUMAN_PLAYER, position).getSnapshot()), results -> {
+            long result = (Long) results[0];
+            if (MoveResult.of(result) == MoveResult.NOT_YOUR_TURN) {
+                log("Waiting for the AI to move...");
+            } else {
+                log("→ " + MoveResult.describe(result));
+            }
 
-            updateBoardFromService();
+            renderSnapshot((GameSnapshot) results[1]);
+        }, error -> log("✗ Error making move: " + error.getMessage()));
+    }
 
-            String status = (String) gameService.getStatus();
-            if (!status.equals("IN_PROGRESS")) {
-                gameActive = false;
-                refreshTimer.stop();
-                gameTimer.stop();
-                
-                handleGameEnd(status);
+    /**
+     * Handles a call's result on the event thread, dropping it if the proxy
+     * was replaced (new round or renewal) while the call was in flight.
+     */
+    private <T> void onEdt(CompletableFuture<T> call, Consumer<T> onResult, Consumer<Throwable> onError) {
+        AsyncGameServiceProxy proxy = gameService;
+        call.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (proxy != gameService) {
+                return;
             }
-
-        } catch (Exception e) {
-            log("✗ Error making move: " + e.getMessage());
-        }
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+                return;
+            }
+            try {
+                onResult.accept(result);
+            } catch (RuntimeException e) {
+                // e.g. an error message where a result was expected
+                onError.accept(e);
+            }
+        }));
     }
 
     /**
      * Handles game end scenario.
      */
-    private void handleGameEnd(String status) {
+    private void handleGameEnd(GameOutcome outcome) {
+        String status = outcome.statusText();
         statusLabel.setText(status);
         statusLabel.setForeground(WIN_COLOR);
         log("=== GAME OVER: " + status + " ===");
         
         // Update statistics
-        if (status.contains("Player X wins")) {
+        if (outcome == GameOutcome.X_WINS) {
             playerXWins++;
-        } else if (status.contains("Player O wins")) {
+        } else if (outcome == GameOutcome.O_WINS) {
             playerOWins++;
-        } else if (status.contains("Draw")) {
+        } else if (outcome == GameOutcome.DRAW) {
             draws++;
         }
         
@@ -381,35 +486,63 @@ public class GameUI extends JFrame {
      * Updates the board display from the service.
      */
     private void updateBoardFromService() {
-        try {
-            char[] board = (char[]) gameService.getBoard();
-            
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    int position = i * 3 + j;
-                    char cell = board[position];
-                    
-                    if (cell != '-' && buttons[i][j].getText().isEmpty()) {
-                        buttons[i][j].setText(String.valueOf(cell));
-                        buttons[i][j].setForeground(
-                            cell == 'X' ? PLAYER_X_COLOR : PLAYER_O_COLOR
-                        );
-                        buttons[i][j].setEnabled(false);
-                        buttons[i][j].setBackground(new Color(220, 220, 220));
-                    }
-                }
+        if (refreshPending) {
+            return;
+        }
+        refreshPending = true;
+        // Unchanged games answer null instead of a full snapshot
+        onEdt(gameService.getSnapshotIfChanged(renderedVersion), snapshot -> {
+            refreshPending = false;
+            if (snapshot != null) {
+                renderSnapshot((GameSnapshot) snapshot);
             }
+        }, error -> {
+            // Silently fail for refresh operations
+            refreshPending = false;
+        });
+    }
+
+    /**
+     * Draws board and turn indicator from one consistent snapshot.
+     */
+    private void renderSnapshot(GameSnapshot snapshot) {
+        // Pushed events can arrive after a newer snapshot was drawn
+        if (snapshot.getVersion() < renderedVersion) {
+            return;
+        }
+        renderedVersion = snapshot.getVersion();
 
-            if (gameActive) {
-                char currentTurn = (Character) gameService.getCurrentPlayer();
-                turnLabel.setText("Turn: " + currentTurn);
-                turnLabel.setBackground(
-                    currentTurn == 'X' ? PLAYER_X_COLOR : PLAYER_O_COLOR
-                );
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int position = i * cols + j;
+                char cell = snapshot.getCell(position);
+                
+                if (cell != '-' && buttons[i][j].getText().isEmpty()) {
+                    buttons[i][j].setText(String.valueOf(cell));
+                    buttons[i][j].setForeground(
+                        cell == 'X' ? PLAYER_X_COLOR : PLAYER_O_COLOR
+                    );
+                    buttons[i][j].setEnabled(false);
+                    buttons[i][j].setBackground(new Color(220, 220, 220));
+                }
             }
+        }
 
-        } catch (Exception e) {
-            // Silently fail for refresh operations
+        if (gameActive) {
+            char currentTurn = snapshot.getCurrentPlayer();
+            turnLabel.setText("Turn: " + currentTurn);
+            turnLabel.setBackground(
+                currentTurn == 'X' ? PLAYER_X_COLOR : PLAYER_O_COLOR
+            );
+        }
+
+        // On large boards the AI answers later, so its winning move can arrive here
+        if (gameActive && !snapshot.isInProgress()) {
+            gameActive = false;
+            refreshTimer.stop();
+            gameTimer.stop();
+
+            handleGameEnd(snapshot.getOutcome());
         }
     }
 
@@ -490,7 +623,7 @@ public class GameUI extends JFrame {
         log("\n--- Renewing Service Connection ---");
         
         try {
-            String serviceName = "TicTacToeGame";
+            String serviceName = gameServiceName();
 
             System.out.println("\n>>>> Before RENEWAL: ");
             registry.displayCache();
@@ -502,18 +635,24 @@ public class GameUI extends JFrame {
             if (ref == null) {
                 log("Service not found in registry. Requesting from server...");
                 ref = server.requestService(serviceName);
+                if (ref == null) {
+                    throw new IllegalStateException("Service '" + serviceName + "' not found");
+                }
                 registry.rebind(serviceName, ref);
                 log("✓ Service cached in registry.");
             } else {
                 log("✓ Service found in registry cache!");
                 log("reusing cached service reference.");
+                registry.renew(serviceName);
+                log("✓ Registry lease renewed.");
             }
             
             System.out.println("\n>>>> After LOOKUP: ");
             registry.displayCache();
 
             // Create new proxy
-            gameService = new GameServiceProxy(ref);
+            gameService = new AsyncGameServiceProxy(LatencyInjector.wrapIfConfigured(ref));
+            connectEvents();
             
             log("✓ Service successfully renewed!");
             log("✓ New proxy connection established.");
@@ -557,8 +696,8 @@ public class GameUI extends JFrame {
      * Clears the board display.
      */
     private void clearBoard() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
                 buttons[i][j].setText("");
                 buttons[i][j].setEnabled(true);
                 buttons[i][j].setBackground(new Color(236, 240, 241));
@@ -568,6 +707,25 @@ public class GameUI extends JFrame {
         gameActive = false;
     }
 
+    private boolean isClassicBoard() {
+        return rows == 3 && cols == 3 && winLength == 3;
+    }
+
+    /**
+     * Gets the service to play on: the shared 3x3 game, or the round's
+     * hosted game for other board sizes.
+     */
+    private String gameServiceName() {
+        if (isClassicBoard()) {
+            return "TicTacToeGame";
+        }
+        if (hostedGameName == null) {
+            hostedGameName = server.createGame(rows, cols, winLength).getServiceName();
+            log("✓ Created " + rows + "x" + cols + " game, " + winLength + " in a row: " + hostedGameName);
+        }
+        return hostedGameName;
+    }
+
     /**
      * Updates the statistics display.
      */
@@ -588,16 +746,20 @@ public class GameUI extends JFrame {
      * Logs a message to the log area.
      */
     private void log(String message) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-        String timestamp = LocalDateTime.now().format(formatter);
+        String timestamp = LocalTime.now().format(LOG_TIME);
         logArea.append("[" + timestamp + "] " + message + "\n");
         logArea.setCaretPosition(logArea.getDocument().getLength());
     }
 
     /**
      * Main method to launch the UI.
+     * Optional arguments: rows, columns and win length (default 3 3 3).
      */
     public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : rows;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : Math.min(Math.min(rows, cols), 5);
+
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -605,7 +767,7 @@ public class GameUI extends JFrame {
                 e.printStackTrace();
             }
             
-            GameUI ui = new GameUI();
+            GameUI ui = new GameUI(rows, cols, winLength);
             ui.setVisible(true);
         });
     }
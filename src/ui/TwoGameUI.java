@@ -1,25 +1,38 @@
 // src/ui/TwoGameUI.java
 package ui;
 
-import client.GameServiceProxy;
+import client.AsyncGameServiceProxy;
+import client.LatencyInjector;
+import client.NearCache;
 import client.ServiceReference;
 import registry.Register;
+import server.GameListener;
+import server.GameOutcome;
+import server.GameSnapshot;
+import server.MoveResult;
 import server.Server;
 import javax.swing.*;
 import java.awt.*;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Two-player UI with separate windows for each player.
  * Features: Timer, round counter, service renewal, and match statistics.
+ * Game calls run asynchronously; results are drawn back on the event thread.
  */
 public class TwoGameUI extends JFrame implements Runnable {
     private char player;
-    private GameServiceProxy gameService;
+    private volatile AsyncGameServiceProxy gameService;
     private Register registry;
+    private NearCache nearCache;
     private Server server;
     private String serviceName;
+    private final int rows;
+    private final int cols;
     
     private JButton[][] buttons;
     private JLabel statusLabel;
@@ -31,6 +44,21 @@ public class TwoGameUI extends JFrame implements Runnable {
     private Timer refreshTimer;
     private Timer gameTimer;
     private boolean gameActive;
+
+    // Board changes arrive by push, or by long poll when push is unavailable;
+    // a conditional read every few seconds is only a safety net
+    private static final int SHARED_STATE_CHECK_MS = 300;
+    private static final int FALLBACK_REFRESH_TICKS = 15;
+    private static final long LONG_POLL_MS = 25_000;
+    // Formatters are immutable and thread-safe; build the pattern once
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private GameListener gameListener;
+    private AsyncGameServiceProxy eventSource;
+    private volatile boolean pushEnabled;
+    private int ticksSinceRefresh;
+    private long renderedVersion = -1;
+    // A fallback read still waiting for its answer
+    private boolean refreshPending;
     
     // Statistics
     private static int currentRound = 1;
@@ -52,10 +80,21 @@ public class TwoGameUI extends JFrame implements Runnable {
     private static final Color WIN_COLOR = new Color(46, 204, 113);
 
     public TwoGameUI(char player, Register registry, Server server, String serviceName) {
+        this(player, registry, server, serviceName, 3, 3);
+    }
+
+    /**
+     * @param rows number of rows on the game's board
+     * @param cols number of columns on the game's board
+     */
+    public TwoGameUI(char player, Register registry, Server server, String serviceName, int rows, int cols) {
         this.player = player;
         this.registry = registry;
+        this.nearCache = new NearCache(registry);
         this.server = server;
         this.serviceName = serviceName;
+        this.rows = rows;
+        this.cols = cols;
         
         initializeUI();
     }
@@ -104,16 +143,19 @@ public class TwoGameUI extends JFrame implements Runnable {
         add(northPanel, BorderLayout.NORTH);
 
         // Board Panel
-        JPanel boardPanel = new JPanel(new GridLayout(3, 3, 8, 8));
+        int side = Math.max(rows, cols);
+        int gap = Math.max(1, 24 / side);
+        JPanel boardPanel = new JPanel(new GridLayout(rows, cols, gap, gap));
         boardPanel.setBackground(BOARD_COLOR);
         boardPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
-        buttons = new JButton[3][3];
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                final int position = i * 3 + j;
+        buttons = new JButton[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                final int position = i * cols + j;
                 buttons[i][j] = new JButton("");
-                buttons[i][j].setFont(new Font("Arial", Font.BOLD, 48));
+                buttons[i][j].setFont(new Font("Arial", Font.BOLD, Math.max(10, 144 / side)));
+                buttons[i][j].setMargin(new Insets(0, 0, 0, 0));
                 buttons[i][j].setFocusPainted(false);
                 buttons[i][j].setBackground(BUTTON_COLOR);
                 buttons[i][j].setCursor(new Cursor(Cursor.HAND_CURSOR));
@@ -201,34 +243,45 @@ public class TwoGameUI extends JFrame implements Runnable {
             log("Initializing game service...");
             
             log("Checking registry cache...");
-            ServiceReference ref = registry.lookup(serviceName);
-            
-            if (ref == null) {
+            ServiceReference ref = nearCache.get(serviceName);
+
+            if (ref != null) {
+                log("✓ Service found in near cache.");
+            } else if ((ref = nearCache.lookup(serviceName)) != null) {
+                log("✓ Service found in registry cache!");
+            } else {
                 log("Service not cached. Requesting from server...");
                 ref = server.requestService(serviceName);
+                if (ref == null) {
+                    throw new IllegalStateException("Service '" + serviceName + "' not found");
+                }
                 registry.rebind(serviceName, ref);
                 log("✓ New service instance created and cached.");
-            } else {
-                log("✓ Service found in registry cache!");
             }
 
-            gameService = new GameServiceProxy(ref);
+            gameService = new AsyncGameServiceProxy(LatencyInjector.wrapIfConfigured(ref));
+            connectEvents();
             
-            // Reset the game board (keeps same service instance)
+            // Reset the game board (keeps same service instance);
+            // the round starts once it has run, so no earlier board is drawn into it
             log("Resetting game board...");
-            gameService.resetGame();
-            log("✓ Game board reset successfully.");
-            
-            log("✓ Connected to game service via proxy.");
-            
-            gameActive = true;
-            elapsedSeconds = 0;
-            
-            updateStatus("Game Ready!");
-            log("=== Round " + currentRound + " started ===");
+            onEdt(gameService.resetGame(), result -> {
+                log("✓ Game board reset successfully.");
+
+                log("✓ Connected to game service via proxy.");
 
-            // Start timers
-            startTimers();
+                gameActive = true;
+                elapsedSeconds = 0;
+
+                updateStatus("Game Ready!");
+                log("=== Round " + currentRound + " started ===");
+
+                // Start timers
+                startTimers();
+            }, error -> {
+                log("✗ Error initializing game: " + error.getMessage());
+                updateStatus("Failed to initialize game!");
+            });
 
         } catch (Exception e) {
             log("✗ Error initializing game: " + e.getMessage());
@@ -241,11 +294,19 @@ public class TwoGameUI extends JFrame implements Runnable {
         if (refreshTimer != null) refreshTimer.stop();
         if (gameTimer != null) gameTimer.stop();
         
-        refreshTimer = new Timer(300, e -> {
-            updateBoard();
+        ticksSinceRefresh = 0;
+        // Let the first refresh redraw the turn state for the new round
+        renderedVersion = -1;
+        refreshTimer = new Timer(SHARED_STATE_CHECK_MS, e -> {
+            // Board changes are pushed or long-polled; this is only a fallback
+            if (++ticksSinceRefresh >= FALLBACK_REFRESH_TICKS) {
+                ticksSinceRefresh = 0;
+                updateBoard();
+            }
             checkSharedState(); // Check if other player triggered an action
         });
         refreshTimer.start();
+        SwingUtilities.invokeLater(this::updateBoard);
 
         gameTimer = new Timer(1000, e -> {
             if (gameActive && !isPaused) {
@@ -256,6 +317,54 @@ public class TwoGameUI extends JFrame implements Runnable {
         gameTimer.start();
     }
     
+    /**
+     * Subscribes to pushed board changes on the current proxy.
+     */
+    private void connectEvents() {
+        if (gameListener == null) {
+            gameListener = event -> SwingUtilities.invokeLater(() -> renderSnapshot(event.getSnapshot()));
+        }
+        if (eventSource != null) {
+            eventSource.unsubscribe(gameListener);
+        }
+
+        pushEnabled = gameService.subscribe(gameListener);
+        eventSource = gameService;
+        refreshPending = false;
+        if (pushEnabled) {
+            log("✓ Subscribed to game events.");
+        } else {
+            startWatcher(gameService);
+            log("Push events unavailable - long polling for updates.");
+        }
+    }
+
+    /**
+     * Waits for board changes while the proxy is current, with one long poll
+     * in flight at a time. Each wait returns as soon as the game moves past
+     * the last version seen, and its answer sends the next one.
+     */
+    private void startWatcher(AsyncGameServiceProxy proxy) {
+        watch(proxy, -1);
+    }
+
+    private void watch(AsyncGameServiceProxy proxy, long seenVersion) {
+        if (gameService != proxy || !isDisplayable()) {
+            return;
+        }
+        proxy.awaitChange(seenVersion, LONG_POLL_MS).whenComplete((result, error) -> {
+            if (error != null || (result != null && !(result instanceof GameSnapshot))) {
+                log("Watcher stopped: " + (error != null ? error.getMessage() : result));
+                return;
+            }
+            GameSnapshot snapshot = (GameSnapshot) result;
+            if (snapshot != null) {
+                SwingUtilities.invokeLater(() -> renderSnapshot(snapshot));
+            }
+            watch(proxy, snapshot != null ? snapshot.getVersion() : seenVersion);
+        });
+    }
+
     /**
      * Checks if the other player triggered a shared action (new round, reset, pause).
      */
@@ -285,31 +394,51 @@ public class TwoGameUI extends JFrame implements Runnable {
             return;
         }
 
-        try {
-            char currentTurn = (Character) gameService.getCurrentPlayer();
-            
-            if (currentTurn != player) {
+        // Move and fresh board in one round trip; the move itself checks the turn
+        onEdt(gameService.submit(gameService.batch().play(player, position).getSnapshot()), results -> {
+            long result = (Long) results[0];
+            if (MoveResult.of(result) == MoveResult.NOT_YOUR_TURN) {
                 log("Not your turn!");
-                return;
+            } else {
+                log("Move at position " + position);
+                log("→ " + MoveResult.describe(result));
             }
 
-            log("Move at position " + position);
-            String result = (String) gameService.makeMove(player, position);
-            log("→ " + result);
-
-            updateBoard();
+            GameSnapshot snapshot = (GameSnapshot) results[1];
+            renderSnapshot(snapshot);
 
-            String status = (String) gameService.getStatus();
-            if (!status.equals("IN_PROGRESS")) {
-                handleGameEnd(status);
+            if (gameActive && !snapshot.isInProgress()) {
+                handleGameEnd(snapshot.getOutcome());
             }
+        }, error -> log("Error: " + error.getMessage()));
+    }
 
-        } catch (Exception e) {
-            log("Error: " + e.getMessage());
-        }
+    /**
+     * Handles a call's result on the event thread, dropping it if the proxy
+     * was replaced (new round or renewal) while the call was in flight.
+     */
+    private <T> void onEdt(CompletableFuture<T> call, Consumer<T> onResult, Consumer<Throwable> onError) {
+        AsyncGameServiceProxy proxy = gameService;
+        call.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (proxy != gameService) {
+                return;
+            }
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+                return;
+            }
+            try {
+                onResult.accept(result);
+            } catch (RuntimeException e) {
+                // e.g. an error message where a result was expected
+                onError.accept(e);
+            }
+        }));
     }
 
-    private void handleGameEnd(String status) {
+    private void handleGameEnd(GameOutcome outcome) {
+        String status = outcome.statusText();
         gameActive = false;
         if (refreshTimer != null) refreshTimer.stop();
         if (gameTimer != null) gameTimer.stop();
@@ -319,11 +448,11 @@ public class TwoGameUI extends JFrame implements Runnable {
 
         // Update statistics (synchronized for both windows)
         synchronized (TwoGameUI.class) {
-            if (status.contains("Player X wins")) {
+            if (outcome == GameOutcome.X_WINS) {
                 playerXWins++;
-            } else if (status.contains("Player O wins")) {
+            } else if (outcome == GameOutcome.O_WINS) {
                 playerOWins++;
-            } else if (status.contains("Draw")) {
+            } else if (outcome == GameOutcome.DRAW) {
                 draws++;
             }
             updateStatsDisplay();
@@ -337,41 +466,59 @@ public class TwoGameUI extends JFrame implements Runnable {
     }
 
     private void updateBoard() {
-        try {
-            char[] board = (char[]) gameService.getBoard();
-            
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    int pos = i * 3 + j;
-                    char cell = board[pos];
-                    
-                    if (cell != '-') {
-                        buttons[i][j].setText(String.valueOf(cell));
-                        buttons[i][j].setForeground(
-                            cell == 'X' ? PLAYER_X_COLOR : PLAYER_O_COLOR
-                        );
-                        buttons[i][j].setEnabled(false);
-                        buttons[i][j].setBackground(new Color(220, 220, 220));
-                    }
-                }
+        if (refreshPending) {
+            return;
+        }
+        refreshPending = true;
+        // Unchanged games answer null instead of a full snapshot
+        onEdt(gameService.getSnapshotIfChanged(renderedVersion), snapshot -> {
+            refreshPending = false;
+            if (snapshot != null) {
+                renderSnapshot((GameSnapshot) snapshot);
             }
+        }, error -> {
+            // Ignore refresh errors
+            refreshPending = false;
+        });
+    }
 
-            if (gameActive) {
-                char currentTurn = (Character) gameService.getCurrentPlayer();
-                boolean isMyTurn = (currentTurn == player);
-                updateStatus(isMyTurn ? "YOUR TURN!" : "Wait...");
+    /**
+     * Draws board and turn state from one consistent snapshot.
+     */
+    private void renderSnapshot(GameSnapshot snapshot) {
+        // Pushed events can arrive after a newer snapshot was drawn
+        if (snapshot.getVersion() < renderedVersion) {
+            return;
+        }
+        renderedVersion = snapshot.getVersion();
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int pos = i * cols + j;
+                char cell = snapshot.getCell(pos);
                 
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        if (buttons[i][j].getText().isEmpty()) {
-                            buttons[i][j].setEnabled(isMyTurn);
-                        }
-                    }
+                if (cell != '-') {
+                    buttons[i][j].setText(String.valueOf(cell));
+                    buttons[i][j].setForeground(
+                        cell == 'X' ? PLAYER_X_COLOR : PLAYER_O_COLOR
+                    );
+                    buttons[i][j].setEnabled(false);
+                    buttons[i][j].setBackground(new Color(220, 220, 220));
                 }
             }
+        }
 
-        } catch (Exception e) {
-            // Ignore refresh errors
+        if (gameActive) {
+            boolean isMyTurn = (snapshot.getCurrentPlayer() == player);
+            updateStatus(isMyTurn ? "YOUR TURN!" : "Wait...");
+            
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (buttons[i][j].getText().isEmpty()) {
+                        buttons[i][j].setEnabled(isMyTurn);
+                    }
+                }
+            }
         }
     }
 
@@ -520,6 +667,9 @@ public class TwoGameUI extends JFrame implements Runnable {
 
             log("Requesting fresh service from server...");
             ServiceReference ref = server.requestService(serviceName);
+            if (ref == null) {
+                throw new IllegalStateException("Service '" + serviceName + "' not found");
+            }
             registry.rebind(serviceName, ref);
             log("✓ New service instance cached in registry.");
             
@@ -527,7 +677,8 @@ public class TwoGameUI extends JFrame implements Runnable {
             registry.displayCache();
 
             // Create new proxy
-            gameService = new GameServiceProxy(ref);
+            gameService = new AsyncGameServiceProxy(LatencyInjector.wrapIfConfigured(ref));
+            connectEvents();
             
             log("✓ Service successfully renewed!");
             log("✓ New proxy connection established.");
@@ -565,8 +716,8 @@ public class TwoGameUI extends JFrame implements Runnable {
     }
 
     private void clearBoard() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
                 buttons[i][j].setText("");
                 buttons[i][j].setEnabled(true);
                 buttons[i][j].setBackground(BUTTON_COLOR);
@@ -593,8 +744,7 @@ public class TwoGameUI extends JFrame implements Runnable {
 
     private void log(String message) {
         SwingUtilities.invokeLater(() -> {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-            String timestamp = LocalDateTime.now().format(formatter);
+            String timestamp = LocalTime.now().format(LOG_TIME);
             logArea.append("[" + timestamp + "] " + message + "\n");
             logArea.setCaretPosition(logArea.getDocument().getLength());
         });
@@ -604,6 +754,16 @@ public class TwoGameUI extends JFrame implements Runnable {
      * Launch two player windows.
      */
     public static void launchTwoPlayers() {
+        launchTwoPlayers(3, 3, 3);
+    }
+
+    /**
+     * Launch two player windows on an m x n board where k in a row wins.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param winLength stones in a row needed to win
+     */
+    public static void launchTwoPlayers(int rows, int cols, int winLength) {
         // Reset shared statistics for new game
         currentRound = 1;
         playerXWins = 0;
@@ -612,7 +772,10 @@ public class TwoGameUI extends JFrame implements Runnable {
 
         Register registry = new Register();
         Server server = new Server();
-        String serviceName = "TicTacToeGame";
+        // Other board sizes play on a hosted game created for this match
+        String serviceName = rows == 3 && cols == 3 && winLength == 3
+            ? "TicTacToeGame"
+            : server.createGame(rows, cols, winLength).getServiceName();
 
         SwingUtilities.invokeLater(() -> {
             try {
@@ -621,8 +784,8 @@ public class TwoGameUI extends JFrame implements Runnable {
                 e.printStackTrace();
             }
 
-            TwoGameUI playerX = new TwoGameUI('X', registry, server, serviceName);
-            TwoGameUI playerO = new TwoGameUI('O', registry, server, serviceName);
+            TwoGameUI playerX = new TwoGameUI('X', registry, server, serviceName, rows, cols);
+            TwoGameUI playerO = new TwoGameUI('O', registry, server, serviceName, rows, cols);
 
             playerX.setVisible(true);
             playerO.setVisible(true);
@@ -634,8 +797,12 @@ public class TwoGameUI extends JFrame implements Runnable {
 
     /**
      * Main method to launch the two-player UI.
+     * Optional arguments: rows, columns and win length (default 3 3 3).
      */
     public static void main(String[] args) {
-        launchTwoPlayers();
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : rows;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : Math.min(Math.min(rows, cols), 5);
+        launchTwoPlayers(rows, cols, winLength);
     }
 }
\ No newline at end of file